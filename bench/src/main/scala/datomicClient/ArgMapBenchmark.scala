@@ -0,0 +1,61 @@
+package datomicClient
+
+import java.util.concurrent.TimeUnit
+import java.util.{List => jList}
+import datomic.Util.{list, read}
+import org.openjdk.jmh.annotations._
+
+// Building the argument maps of `datoms` and `pull` from edn text vs with ArgMap.
+//
+// Run with:
+// sbt "bench/jmh:run -i 10 -wi 5 -f 1 .*ArgMapBenchmark.*"
+@State(Scope.Thread)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+class ArgMapBenchmark extends ClojureBridge {
+
+  val index     : String   = ":avet"
+  val components: jList[_] = list(read(":movie/title"), "Commando", 17592186045418L)
+  val selector  : String   = "[:movie/title :movie/release-year]"
+  val eid       : Long     = 17592186045418L
+  val timeout   : Int      = 100
+  val limit     : Int      = 1000
+
+
+  @Benchmark
+  def datomsEdn(): AnyRef = read(
+    s"""{
+       |:index $index
+       |:components ${edn(components)}
+       |:timeout $timeout
+       |:limit $limit
+       |}""".stripMargin
+  )
+
+  @Benchmark
+  def datomsArgMap(): AnyRef = ArgMap(5)
+    .put(Kw.index, ArgMap.kw(index))
+    .put(Kw.components, ArgMap.value(components))
+    .timeout(timeout)
+    .limit(limit)
+    .build
+
+
+  @Benchmark
+  def pullEdn(): AnyRef = read(
+    s"""{
+       |:selector $selector
+       |:eid $eid
+       |:timeout $timeout
+       |:limit $limit
+       |}""".stripMargin
+  )
+
+  @Benchmark
+  def pullArgMap(): AnyRef = ArgMap(5)
+    .put(Kw.selector, read(selector))
+    .put(Kw.eid, ArgMap.value(eid))
+    .timeout(timeout)
+    .limit(limit)
+    .build
+}
@@ -0,0 +1,42 @@
+package datomicClient
+
+import java.util.concurrent.TimeUnit
+import java.util.{ArrayList, List => jList}
+import datomic.Util.{map, read}
+import org.openjdk.jmh.annotations._
+
+// Converting tx-data via printed edn text vs structurally with CljData.
+//
+// Run with:
+// sbt "bench/jmh:run -i 10 -wi 5 -f 1 .*CljDataBenchmark.*"
+@State(Scope.Thread)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+class CljDataBenchmark extends ClojureBridge {
+
+  @Param(Array("10", "1000"))
+  var entities: Int = _
+
+  var stmts: jList[_] = _
+
+  @Setup
+  def setup(): Unit = {
+    require("clojure.tools.reader")
+    val list = new ArrayList[AnyRef](entities)
+    (1 to entities).foreach { i =>
+      list.add(map(
+        read(":movie/title"), s"Film $i",
+        read(":movie/genre"), "action/adventure",
+        read(":movie/release-year"), Int.box(1900 + i % 100)
+      ))
+    }
+    stmts = list
+  }
+
+
+  @Benchmark
+  def txDataEdn(): AnyRef = readString(s"{:tx-data ${edn(stmts)}}")
+
+  @Benchmark
+  def txDataCljData(): AnyRef = ArgMap(1).put(Kw.txData, CljData.txData(stmts)).build
+}
@@ -5,46 +5,66 @@ import java.util
 import java.util.stream.{StreamSupport, Stream => jStream}
 import java.util.{Collections, Spliterator, Spliterators, Iterator => jIterator, List => jList, Map => jMap}
 import clojure.lang._
-import datomic.Util.read
+import datomicClient.{DatomColumns, Kw}
 import javafx.util.Pair
 import scala.jdk.CollectionConverters._
 
 object Helper {
 
-  lazy val e = read(":e")
-  lazy val a = read(":a")
-  lazy val v = read(":v")
-  lazy val tx = read(":tx")
-  lazy val added = read(":added")
-
   def getDatom(d: ILookup): Datom = Datom(
-    d.valAt(e).asInstanceOf[Long],
-    d.valAt(a),
-    d.valAt(v),
-    d.valAt(tx).asInstanceOf[Long],
-    d.valAt(added).asInstanceOf[Boolean]
+    d.valAt(Kw.e).asInstanceOf[Long],
+    d.valAt(Kw.a),
+    d.valAt(Kw.v),
+    d.valAt(Kw.tx).asInstanceOf[Long],
+    d.valAt(Kw.added).asInstanceOf[Boolean]
+  )
+
+  def getPrimitiveDatom(d: ILookup): PrimitiveDatom = PrimitiveDatom(
+    d.valAt(Kw.e).asInstanceOf[Long],
+    DatomColumns.attrId(d),
+    d.valAt(Kw.v),
+    d.valAt(Kw.tx).asInstanceOf[Long],
+    d.valAt(Kw.added).asInstanceOf[Boolean]
+  )
+
+
+  def streamOfDatoms(rawDatoms: Any): jStream[Datom] =
+    datomStream(rawDatoms, getDatom)
+
+  def streamOfPrimitiveDatoms(rawDatoms: Any): jStream[PrimitiveDatom] =
+    datomStream(rawDatoms, getPrimitiveDatom)
+
+  // Datoms of raw pages fetched while consuming
+  def streamOfDatomPages(pages: jIterator[ILookup]): jStream[Datom] = closing(
+    mkStream(
+      new jIterator[Datom] {
+        override def hasNext: Boolean = pages.hasNext
+        override def next(): Datom = getDatom(pages.next)
+      }
+    ),
+    pages
   )
 
   // Unify Datoms in single fast iteration
-  def streamOfDatoms(rawDatoms: Any): jStream[Datom] = {
+  private def datomStream[T](rawDatoms: Any, datom: ILookup => T): jStream[T] = {
     rawDatoms match {
       // Dev-local only
       // Getting Datom values without reflection
       case lazySeq: LazySeq => mkStream(
-        new jIterator[Datom] {
+        new jIterator[T] {
           val it: jIterator[_] = lazySeq.iterator
           override def hasNext: Boolean = it.hasNext
-          override def next(): Datom = getDatom(it.next.asInstanceOf[ILookup])
+          override def next(): T = datom(it.next.asInstanceOf[ILookup])
         }
       )
 
       // Peer Server + Dev-local
       // Gets Datom values with reflection through ILookup interface
       case iterable: java.lang.Iterable[_] => mkStream(
-        new jIterator[Datom] {
+        new jIterator[T] {
           val it: jIterator[_] = iterable.iterator
           override def hasNext: Boolean = it.hasNext
-          override def next(): Datom = getDatom(it.next.asInstanceOf[ILookup])
+          override def next(): T = datom(it.next.asInstanceOf[ILookup])
         }
       )
 
@@ -52,11 +72,22 @@ object Helper {
     }
   }
 
-  private def mkStream(it: jIterator[Datom]): jStream[Datom] = StreamSupport.stream(
-    Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED),
-    false
+  private[api] def mkStream[T](it: jIterator[T]): jStream[T] = closing(
+    StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED), false),
+    it
   )
 
+  // Closing the stream closes a source holding resources, like a Prefetcher
+  private def closing[T](stream: jStream[T], source: AnyRef): jStream[T] = source match {
+    case closeable: AutoCloseable => stream.onClose(() => closeable.close())
+    case _                        => stream
+  }
+
+
+  // Decode a page of raw datoms into columns
+  def datomBatch(rawDatoms: Any): DatomBatch =
+    DatomColumns.decode(rawDatoms)(new DatomBatch(_, _, _, _, _, _, _))
+
   def nestedTxsIterable(
     isDevLocal: Boolean,
     rawTxs0: AnyRef
@@ -74,8 +105,8 @@ object Helper {
             override def hasNext: Boolean = it.hasNext
             override def next(): Pair[Long, jIterable[Datom]] = {
               val tx          = it.next().asInstanceOf[PersistentArrayMap]
-              val t           = tx.get(read(":t")).asInstanceOf[Long]
-              val rawTxDatoms = tx.get(read(":data")).asInstanceOf[PersistentVector]
+              val t           = tx.get(Kw.t).asInstanceOf[Long]
+              val rawTxDatoms = tx.get(Kw.data).asInstanceOf[PersistentVector]
 
               // Iterable with Datoms of this tx
               val txDatoms = new jIterable[Datom] {
@@ -107,8 +138,8 @@ object Helper {
             override def hasNext: Boolean = it.hasNext
             override def next(): Pair[Long, jIterable[Datom]] = {
               val tx          = it.next().asInstanceOf[PersistentArrayMap]
-              val t           = tx.get(read(":t")).asInstanceOf[Long]
-              val rawTxDatoms = tx.get(read(":data")).asInstanceOf[PersistentVector]
+              val t           = tx.get(Kw.t).asInstanceOf[Long]
+              val rawTxDatoms = tx.get(Kw.data).asInstanceOf[PersistentVector]
 
               // Iterable with Datoms of this tx
               val txDatoms = new jIterable[Datom] {
@@ -141,8 +172,8 @@ object Helper {
       var i   = 0
       raw.forEach { tx0 =>
         val tx          = tx0.asInstanceOf[PersistentArrayMap]
-        val t           = tx.get(read(":t")).asInstanceOf[Long]
-        val rawTxDatoms = tx.get(read(":data")).asInstanceOf[PersistentVector]
+        val t           = tx.get(Kw.t).asInstanceOf[Long]
+        val rawTxDatoms = tx.get(Kw.data).asInstanceOf[PersistentVector]
         val txDatoms    = new Array[Datom](rawTxDatoms.size())
         var j           = 0
         rawTxDatoms.forEach { d0 =>
@@ -161,8 +192,8 @@ object Helper {
       var i   = 0
       raw.forEach { tx0 =>
         val tx          = tx0.asInstanceOf[PersistentArrayMap]
-        val t           = tx.get(read(":t")).asInstanceOf[Long]
-        val rawTxDatoms = tx.get(read(":data")).asInstanceOf[PersistentVector]
+        val t           = tx.get(Kw.t).asInstanceOf[Long]
+        val rawTxDatoms = tx.get(Kw.data).asInstanceOf[PersistentVector]
         val txDatoms    = new Array[Datom](rawTxDatoms.size())
         var j           = 0
         rawTxDatoms.forEach { d0 =>
@@ -178,8 +209,8 @@ object Helper {
 
 
   def dbStats(isDevLocal: Boolean, raw: jMap[_, _]): DbStats = {
-    val datoms   = raw.get(read(":datoms")).asInstanceOf[Long]
-    val attrsRaw = raw.get(read(":attrs"))
+    val datoms   = raw.get(Kw.datoms).asInstanceOf[Long]
+    val attrsRaw = raw.get(Kw.attrs)
     if (attrsRaw != null) {
       val count = if (isDevLocal)
         (rawCount: Any) => rawCount.asInstanceOf[Int].toLong
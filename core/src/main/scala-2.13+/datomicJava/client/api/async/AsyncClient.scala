@@ -1,6 +1,6 @@
 package datomicJava.client.api.async
 
-import java.util.concurrent.CompletableFuture
+import java.util.concurrent.{CompletableFuture, Executor, ForkJoinPool}
 import java.util.{List => jList, Map => jMap}
 import datomic.Util
 import datomic.Util._
@@ -11,9 +11,23 @@ import datomicJava.client.api.async
 
 case class AsyncClient(
   forPeerServer: Boolean,
-  asyncDatomicClient: AnyRef
+  asyncDatomicClient: AnyRef,
+  executor: Executor = ForkJoinPool.commonPool(),
+  deadline: Option[Deadline] = None
 ) extends AnomalyWrapper with ClojureBridge {
 
+  /** Same client with futures completed on `executor`. */
+  def withExecutor(executor: Executor): AsyncClient = copy(executor = executor)
+
+  /** Same client with calls abandoned when `deadline` expires.
+   *
+   * The deadline is passed on to connections and databases of the client
+   * and bounds the `:timeout` of each call.
+   */
+  def withDeadline(deadline: Deadline): AsyncClient = copy(deadline = Some(deadline))
+
+  private def within(timeout: Int): Int = Deadline.timeout(deadline, timeout)
+
   /**
    * Upgrading Datomic Schema
    *
@@ -42,20 +56,15 @@ case class AsyncClient(
 
   def administerSystem(dbName: String): jMap[_, _] = administerSystem(
     Util.map(
-      read(":db-name"), read(dbName),
-      read(":action"), read(":upgrade-schema"),
+      Kw.dbName, read(dbName),
+      Kw.action, Kw.upgradeSchema,
     )
   )
 
   def connect(dbName: String): CompletableFuture[Either[CognitectAnomaly, AsyncConnection]] = {
-    CompletableFuture.supplyAsync { () =>
-      Channel[AnyRef](
-        InvokeAsync.connect(asyncDatomicClient, dbName)
-      ).chunk match {
-        case Right(datomicConn) => async.Right(AsyncConnection(datomicConn))
-        case Left(anomaly)      => async.Left(anomaly)
-      }
-    }
+    Channel.takeMap[AnyRef, AsyncConnection](
+      InvokeAsync.connect(asyncDatomicClient, dbName), executor, deadline
+    )(datomicConn => AsyncConnection(datomicConn, executor, deadline))
   }
 
 
@@ -65,11 +74,11 @@ case class AsyncClient(
   ): CompletableFuture[Either[CognitectAnomaly, Boolean]] = {
     if (forPeerServer)
       throw new RuntimeException(ErrorMsg.createDatabase(dbName))
-    CompletableFuture.supplyAsync { () =>
-      Channel[Boolean](
-        InvokeAsync.createDatabase(asyncDatomicClient, dbName, timeout)
-      ).chunk
-    }
+    Channel.take[Boolean](
+      InvokeAsync.createDatabase(asyncDatomicClient, dbName, within(timeout)),
+      executor,
+      deadline
+    )
   }
 
   def createDatabase(dbName: String): CompletableFuture[Either[CognitectAnomaly, Boolean]] =
@@ -82,11 +91,11 @@ case class AsyncClient(
   ): CompletableFuture[Either[CognitectAnomaly, Boolean]] = {
     if (forPeerServer)
       throw new RuntimeException(ErrorMsg.deleteDatabase(dbName))
-    CompletableFuture.supplyAsync { () =>
-      Channel[Boolean](
-        InvokeAsync.deleteDatabase(asyncDatomicClient, dbName, timeout)
-      ).chunk
-    }
+    Channel.take[Boolean](
+      InvokeAsync.deleteDatabase(asyncDatomicClient, dbName, within(timeout)),
+      executor,
+      deadline
+    )
   }
 
   def deleteDatabase(dbName: String): CompletableFuture[Either[CognitectAnomaly, Boolean]] =
@@ -100,11 +109,11 @@ case class AsyncClient(
     offset: Int,
     limit: Int
   ): CompletableFuture[Either[CognitectAnomaly, jList[String]]] = {
-    CompletableFuture.supplyAsync { () =>
-      Channel[jList[String]](
-        InvokeAsync.listDatabase(asyncDatomicClient, timeout, offset, limit)
-      ).chunk
-    }
+    Channel.take[jList[String]](
+      InvokeAsync.listDatabase(asyncDatomicClient, within(timeout), offset, limit),
+      executor,
+      deadline
+    )
   }
 
   def listDatabases(limit: Int): CompletableFuture[Either[CognitectAnomaly, jList[String]]] =
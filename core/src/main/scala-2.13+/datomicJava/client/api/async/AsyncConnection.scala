@@ -2,7 +2,7 @@ package datomicJava.client.api.async
 
 import java.io.{Reader, StringReader}
 import java.lang.{Iterable => jIterable}
-import java.util.concurrent.CompletableFuture
+import java.util.concurrent.{CompletableFuture, Executor, ForkJoinPool}
 import java.util.{List => jList, Map => jMap}
 import datomic.Util
 import datomic.Util._
@@ -10,33 +10,61 @@ import datomicClient._
 import datomicClient.anomaly.CognitectAnomaly
 import datomicJava.client.api.{Datom, Helper, async}
 import javafx.util.Pair
+import scala.annotation.varargs
 
 
-case class AsyncConnection(datomicConn: AnyRef) {
+case class AsyncConnection(
+  datomicConn: AnyRef,
+  executor: Executor = ForkJoinPool.commonPool(),
+  deadline: Option[Deadline] = None
+) {
 
-  lazy private val isDevLocal = db.datomicDb.isInstanceOf[clojure.lang.IPersistentMap]
+  /** Same connection with futures completed on `executor`. */
+  def withExecutor(executor: Executor): AsyncConnection = copy(executor = executor)
 
+  /** Same connection with calls abandoned when `deadline` expires. */
+  def withDeadline(deadline: Deadline): AsyncConnection = copy(deadline = Some(deadline))
 
-  def db: AsyncDb = AsyncDb(InvokeAsync.db(datomicConn))
+  private def within(timeout: Int): Int = Deadline.timeout(deadline, timeout)
 
 
+  def db: AsyncDb = AsyncDb(InvokeAsync.db(datomicConn), executor = executor, deadline = deadline)
+
+
+  @deprecated("Blocks until synced. Use syncAsync.", "1.0.4")
   def sync(t: Long): AsyncDb = AsyncDb(
     Channel[AnyRef](
       InvokeAsync.sync(datomicConn, t)
       // Assuming no anomalies
-    ).chunk.asInstanceOf[Right[_, AnyRef]].right_value
+    ).chunk.asInstanceOf[Right[_, AnyRef]].right_value,
+    executor = executor,
+    deadline = deadline
   )
 
+  // Db synced to `t` without blocking
+  def syncAsync(t: Long): CompletableFuture[Either[CognitectAnomaly, AsyncDb]] = {
+    Channel.takeMap[AnyRef, AsyncDb](
+      InvokeAsync.sync(datomicConn, t), executor, deadline
+    )(syncedDb => AsyncDb(syncedDb, None, executor, deadline))
+  }
+
+
+  def transact(stmts: jList[_]): CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] =
+    txReport(InvokeAsync.transact(datomicConn, stmts))
 
-  def transact(stmts: jList[_]): CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] = {
-    CompletableFuture.supplyAsync { () =>
-      Channel[jMap[_, _]](
-        InvokeAsync.transact(datomicConn, stmts)
-      ).chunk match {
-        case Right(txReport) => Channel[AsyncTxReport](AsyncTxReport(txReport)).chunk
-        case Left(anomaly)   => async.Left(anomaly)
-      }
-    }
+  // Tx data bound from a template compiled once
+  @varargs
+  def transact(template: TxTemplate, values: Any*)
+  : CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] = {
+    val txData = template.bind(values: _*)
+    txReport(InvokeAsync.transactTxData(datomicConn, txData))
+  }
+
+  private def txReport(invoke: => AnyRef)
+  : CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] = {
+    Channel.takeMap[jMap[_, _], AsyncTxReport](invoke, executor, deadline)(
+      txReport => AsyncTxReport(txReport, executor, deadline)
+    )
   }
 
   def transact(stmtsReader: Reader): CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] =
@@ -45,6 +73,9 @@ case class AsyncConnection(datomicConn: AnyRef) {
   def transact(edn: String): CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] =
     transact(readAll(new StringReader(edn)).get(0).asInstanceOf[jList[_]])
 
+  // Transactions pipelined with an adaptive bound on those in flight
+  def pipeline(maxInFlight: Int): TxPipeline = new TxPipeline(this, maxInFlight)
+
 
   def txRange(
     timePointStart: Any, // Int | Long | java.util.Date
@@ -52,20 +83,17 @@ case class AsyncConnection(datomicConn: AnyRef) {
     timeout: Int,
     offset: Int,
     limit: Int
-  ): CompletableFuture[Either[CognitectAnomaly, jIterable[Pair[Long, jIterable[Datom]]]]] =
-    CompletableFuture.supplyAsync { () =>
-      val startOpt = if (timePointStart == 0) None else Some(timePointStart)
-      val endOpt   = if (timePointEnd == 0) None else Some(timePointEnd)
-      Channel[AnyRef](
-        Invoke.txRange(datomicConn, startOpt, endOpt, timeout, offset, limit)
-      ).chunk match {
-        case Right(rawTxs0) =>
-          Channel[jIterable[Pair[Long, jIterable[Datom]]]](
-            Helper.nestedTxsIterable(isDevLocal, rawTxs0)
-          ).chunk
-        case Left(anomaly)  => async.Left(anomaly)
-      }
-    }
+  ): CompletableFuture[Either[CognitectAnomaly, jIterable[Pair[Long, jIterable[Datom]]]]] = {
+    val startOpt = if (timePointStart == 0) None else Some(timePointStart)
+    val endOpt   = if (timePointEnd == 0) None else Some(timePointEnd)
+    Channel.bridge(
+      CoreAsync.takeAllAsync(
+        InvokeAsync.txRange(datomicConn, startOpt, endOpt, within(timeout), offset, limit),
+        deadline
+      ),
+      executor
+    )(rawTxs => Helper.nestedTxsIterable(false, rawTxs)) // Chunks collected in a java List
+  }
 
   def txRange(timePointStart: Any, timePointEnd: Any, limit: Int)
   : CompletableFuture[Either[CognitectAnomaly, jIterable[Pair[Long, jIterable[Datom]]]]] =
@@ -91,19 +119,15 @@ case class AsyncConnection(datomicConn: AnyRef) {
     offset: Int,
     limit: Int
   ): CompletableFuture[Either[CognitectAnomaly, Array[Pair[Long, Array[Datom]]]]] = {
-    CompletableFuture.supplyAsync { () =>
-      val startOpt = if (timePointStart == 0) None else Some(timePointStart)
-      val endOpt   = if (timePointEnd == 0) None else Some(timePointEnd)
-      Channel[AnyRef](
-        Invoke.txRange(datomicConn, startOpt, endOpt, timeout, offset, limit)
-      ).chunk match {
-        case Right(rawTxs0) =>
-          Channel[Array[Pair[Long, Array[Datom]]]](
-            Helper.nestedTxsArray(isDevLocal, rawTxs0)
-          ).chunk
-        case Left(anomaly)  => async.Left(anomaly)
-      }
-    }
+    val startOpt = if (timePointStart == 0) None else Some(timePointStart)
+    val endOpt   = if (timePointEnd == 0) None else Some(timePointEnd)
+    Channel.bridge(
+      CoreAsync.takeAllAsync(
+        InvokeAsync.txRange(datomicConn, startOpt, endOpt, within(timeout), offset, limit),
+        deadline
+      ),
+      executor
+    )(rawTxs => Helper.nestedTxsArray(false, rawTxs)) // Chunks collected in a java List
   }
 
   def txRangeArray(timePointStart: Any, timePointEnd: Any, limit: Int
@@ -125,20 +149,19 @@ case class AsyncConnection(datomicConn: AnyRef) {
 
   // Convenience method for single invocation from connection
   def widh(stmts: jList[_]): CompletableFuture[Either[CognitectAnomaly, AsyncDb]] = {
-    withDb.thenApply {
+    val wdbFut = withDb
+    Channel.cancelling(wdbFut, wdbFut.thenCompose[Either[CognitectAnomaly, AsyncDb]] {
       case Right(wdb) =>
-        Channel[AnyRef](
-          InvokeAsync.`with`(wdb, stmts)
-        ).chunk match {
-          case Right(txMap) =>
-            val dbAfter = txMap.asInstanceOf[jMap[_, _]].get(read(":db-after"))
-            async.Right(AsyncDb(dbAfter.asInstanceOf[AnyRef]))
-
-          case Left(anomaly) => async.Left(anomaly)
+        Channel.takeMap[AnyRef, AsyncDb](
+          InvokeAsync.`with`(wdb, stmts), executor, deadline
+        ) { txMap =>
+          val dbAfter = txMap.asInstanceOf[jMap[_, _]].get(Kw.dbAfter)
+          AsyncDb(dbAfter.asInstanceOf[AnyRef], None, executor, deadline)
         }
 
-      case Left(anomaly) => async.Left(anomaly)
-    }
+      case Left(anomaly) =>
+        CompletableFuture.completedFuture(async.Left(anomaly))
+    })
   }
 
   def widh(stmtsReader: Reader): CompletableFuture[Either[CognitectAnomaly, AsyncDb]] =
@@ -150,11 +173,9 @@ case class AsyncConnection(datomicConn: AnyRef) {
 
   def withDb: CompletableFuture[Either[CognitectAnomaly, AnyRef]] = {
     // Special db value for `with` (or `widh`)
-    CompletableFuture.supplyAsync { () =>
-      Channel[AnyRef](
-        // Special db value for `with` (or `widh`)
-        InvokeAsync.withDb(datomicConn)
-      ).chunk
-    }
+    Channel.take[AnyRef](
+      // Special db value for `with` (or `widh`)
+      InvokeAsync.withDb(datomicConn), executor, deadline
+    )
   }
 }
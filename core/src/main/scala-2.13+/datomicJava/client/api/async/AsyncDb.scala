@@ -1,63 +1,101 @@
 package datomicJava.client.api.async
 
 import java.io.{Reader, StringReader}
-import java.util.concurrent.CompletableFuture
+import java.util.concurrent.{CompletableFuture, CompletionException, Executor, Flow, ForkJoinPool}
 import java.util.stream.{Stream => jStream}
-import java.util.{Date, List => jList, Map => jMap, Collection => jCollection}
+import java.util.{Date, Iterator => jIterator, List => jList, Map => jMap, Collection => jCollection}
+import clojure.lang.ILookup
 import datomic.Util.readAll
 import datomicClient._
 import datomicClient.anomaly.CognitectAnomaly
-import datomicJava.client.api.{Datom, DbStats, Helper, async}
+import datomicJava.client.api.{Datom, DatomBatch, DbStats, Helper, async}
 
 
 case class AsyncDb(
   datomicDb: AnyRef,
-  sinceTimePoint: Option[(Long, Long, Date)] = None
+  sinceTimePoint: Option[(Long, Long, Date)] = None,
+  executor: Executor = ForkJoinPool.commonPool(),
+  deadline: Option[Deadline] = None
 ) extends DbLookup(datomicDb, sinceTimePoint) {
 
+  /** Same database value with futures completed on `executor`. */
+  def withExecutor(executor: Executor): AsyncDb = copy(executor = executor)
+
+  /** Same database value with calls abandoned when `deadline` expires. */
+  def withDeadline(deadline: Deadline): AsyncDb = copy(deadline = Some(deadline))
+
+  private def within(timeout: Int): Int = Deadline.timeout(deadline, timeout)
 
   def dbStats: CompletableFuture[Either[CognitectAnomaly, DbStats]] = {
-    CompletableFuture.supplyAsync { () =>
-      Channel[jMap[_, _]](
-        InvokeAsync.dbStats(datomicDb)
-      ).chunk
-    }.thenApply {
-      case Right(dbStats: jMap[_, _]) =>
-        Channel[DbStats](Helper.dbStats(isDevLocal, dbStats)).chunk
-      case Left(anomaly)              => async.Left(anomaly)
-    }
+    Channel.takeMap[jMap[_, _], DbStats](
+      InvokeAsync.dbStats(datomicDb), executor, deadline
+    )(dbStats => Helper.dbStats(isDevLocal, dbStats))
   }
 
   // Time filters --------------------------------------
 
-  def asOf(t: Long): AsyncDb = AsyncDb(InvokeAsync.asOf(datomicDb, t))
+  @deprecated("Blocks while finding the tx of an as-of Date. Use asOfTAsync.", "1.0.4")
+  override def asOfT: Long = super.asOfT
+
+  // As-of t with the tx of an as-of Date found without blocking
+  def asOfTAsync: CompletableFuture[Either[CognitectAnomaly, java.lang.Long]] =
+    Channel.bridge(asOfTFuture, executor)(t => t)
+
+  @deprecated("Blocks while pulling the tx instant. Use asOfTxInstAsync.", "1.0.4")
+  override def asOfTxInst: Date = super.asOfTxInst
+
+  // Tx instant of as-of-db pulled without blocking
+  def asOfTxInstAsync: CompletableFuture[Either[CognitectAnomaly, Date]] =
+    Channel.bridge(asOfTxInstFuture, executor)(txInst => txInst)
 
-  def asOf(d: Date): AsyncDb = AsyncDb(InvokeAsync.asOf(datomicDb, d))
 
+  def asOf(t: Long): AsyncDb =
+    AsyncDb(InvokeAsync.asOf(datomicDb, t), executor = executor, deadline = deadline)
 
+  def asOf(d: Date): AsyncDb =
+    AsyncDb(InvokeAsync.asOf(datomicDb, d), executor = executor, deadline = deadline)
+
+
+  @deprecated("Blocks while resolving the time point. Use sinceAsync.", "1.0.4")
   def since(tOrTx: Long): AsyncDb =
-    AsyncDb(InvokeAsync.since(datomicDb, tOrTx), extractSinceTimePoint(tOrTx))
+    AsyncDb(InvokeAsync.since(datomicDb, tOrTx), extractSinceTimePoint(tOrTx), executor, deadline)
 
+  @deprecated("Blocks while resolving the time point. Use sinceAsync.", "1.0.4")
   def since(d: Date): AsyncDb =
-    AsyncDb(InvokeAsync.since(datomicDb, d), extractSinceTimePoint(d))
+    AsyncDb(InvokeAsync.since(datomicDb, d), extractSinceTimePoint(d), executor, deadline)
+
+  // Time point of since-db resolved without blocking
+  def sinceAsync(tOrTx: Long): CompletableFuture[Either[CognitectAnomaly, AsyncDb]] =
+    sinceDb(extractSinceTimePointAsync(tOrTx), InvokeAsync.since(datomicDb, tOrTx))
+
+  def sinceAsync(d: Date): CompletableFuture[Either[CognitectAnomaly, AsyncDb]] =
+    sinceDb(extractSinceTimePointAsync(d), InvokeAsync.since(datomicDb, d))
+
+  private def sinceDb(
+    timePoint: CompletableFuture[Option[(Long, Long, Date)]],
+    sinceDatomicDb: => AnyRef
+  ): CompletableFuture[Either[CognitectAnomaly, AsyncDb]] = {
+    timePoint.handleAsync[Either[CognitectAnomaly, AsyncDb]](
+      (tp: Option[(Long, Long, Date)], failure: Throwable) => failure match {
+        case null => async.Right(AsyncDb(sinceDatomicDb, tp, executor, deadline))
+
+        case e: CompletionException if e.getCause.isInstanceOf[CognitectAnomaly] =>
+          async.Left(e.getCause.asInstanceOf[CognitectAnomaly])
+
+        case anomaly: CognitectAnomaly => async.Left(anomaly)
+        case e                         => throw e
+      },
+      executor
+    )
+  }
 
 
   // Presuming a `withDb` is passed.
   def `with`(withDb: AnyRef, stmts: jList[_])
   : CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] = {
-    CompletableFuture.supplyAsync { () =>
-      Channel[AnyRef](
-        InvokeAsync.`with`(withDb, stmts)
-      ).chunk
-    }.thenApply {
-      case Right(withDb) =>
-        Channel[AsyncTxReport](
-          AsyncTxReport(
-            withDb.asInstanceOf[jMap[_, _]]
-          )
-        ).chunk
-      case Left(anomaly) => async.Left(anomaly)
-    }
+    Channel.takeMap[AnyRef, AsyncTxReport](
+      InvokeAsync.`with`(withDb, stmts), executor, deadline
+    )(withDb => AsyncTxReport(withDb.asInstanceOf[jMap[_, _]], executor, deadline))
   }
 
   def `with`(withDb: AnyRef, stmtsReader: Reader)
@@ -72,15 +110,10 @@ case class AsyncDb(
   // Convenience method to pass with-modified Db from `conn.withDb`
   def `with`(withDbFut: CompletableFuture[Either[CognitectAnomaly, AnyRef]], stmts: jList[_])
   : CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] = {
-    withDbFut.thenApply {
-      case Right(withDb) =>
-        Right(
-          `with`(withDb, stmts)
-            .get.asInstanceOf[Right[_, AsyncTxReport]].right_value
-        )
-
-      case Left(anomaly) => async.Left(anomaly)
-    }
+    Channel.cancelling(withDbFut, withDbFut.thenCompose[Either[CognitectAnomaly, AsyncTxReport]] {
+      case Right(withDb) => `with`(withDb, stmts)
+      case Left(anomaly) => CompletableFuture.completedFuture(async.Left(anomaly))
+    })
   }
 
   def `with`(
@@ -132,7 +165,7 @@ case class AsyncDb(
 
 
   def history: AsyncDb = AsyncDb(
-    InvokeAsync.history(datomicDb)
+    InvokeAsync.history(datomicDb), executor = executor, deadline = deadline
   )
 
 
@@ -153,16 +186,11 @@ case class AsyncDb(
     offset: Int,
     limit: Int
   ): CompletableFuture[Either[CognitectAnomaly, jStream[Datom]]] = {
-    CompletableFuture.supplyAsync { () =>
-      Channel[Any](
-        InvokeAsync.datoms(datomicDb, index, components, timeout, offset, limit)
-      ).chunk
-    }.thenApply {
-      case Right(datoms) => Channel[jStream[Datom]](
-        Helper.streamOfDatoms(datoms)
-      ).chunk
-      case Left(anomaly) => async.Left(anomaly)
-    }
+    Channel.takeMap[Any, jStream[Datom]](
+      InvokeAsync.datoms(datomicDb, index, components, within(timeout), offset, limit),
+      executor,
+      deadline
+    )(datoms => Helper.streamOfDatoms(datoms))
   }
 
   def datoms(
@@ -179,6 +207,74 @@ case class AsyncDb(
     datoms(index, components, 0, 0, 1000)
 
 
+  // Page of datoms decoded into columns
+  def datomsBatch(
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    offset: Int,
+    limit: Int
+  ): CompletableFuture[Either[CognitectAnomaly, DatomBatch]] = {
+    Channel.takeMap[Any, DatomBatch](
+      InvokeAsync.datoms(datomicDb, index, components, within(timeout), offset, limit),
+      executor,
+      deadline
+    )(datoms => Helper.datomBatch(datoms))
+  }
+
+  def datomsBatch(
+    index: String,
+    components: jList[_]
+  ): CompletableFuture[Either[CognitectAnomaly, DatomBatch]] =
+    datomsBatch(index, components, 0, 0, 1000)
+
+
+  // Datoms fetched lazily in pages with memory bounded by the page size.
+  // Unlike indexRangePaged, pages are the chunks of one server-side cursor,
+  // not requests resuming from a key, since datoms can't seek to a key.
+  // The first chunk is taken without blocking, the following are waited for
+  // by the thread consuming the stream.
+  def datomsPaged(
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    pageSize: Int
+  ): CompletableFuture[Either[CognitectAnomaly, jStream[Datom]]] = {
+    Channel.bridge(
+      DatomPages.datomsAsync(InvokeAsync, datomicDb, index, components, timeout, pageSize, deadline),
+      executor
+    )(pages => Helper.streamOfDatomPages(pages))
+  }
+
+  def datomsPaged(
+    index: String,
+    components: jList[_]
+  ): CompletableFuture[Either[CognitectAnomaly, jStream[Datom]]] =
+    datomsPaged(index, components, 0, 1000)
+
+
+  // All chunks of datoms published as the subscriber requests them
+  def datomsPublisher(
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    chunk: Int
+  ): Flow.Publisher[jStream[Datom]] = {
+    Channel[jStream[Datom]](
+      InvokeAsync.datoms(datomicDb, index, components, within(timeout), 0, -1, chunk),
+      Some((res: AnyRef) => Helper.streamOfDatoms(res)),
+      executor,
+      deadline
+    ).publisher
+  }
+
+  def datomsPublisher(
+    index: String,
+    components: jList[_]
+  ): Flow.Publisher[jStream[Datom]] =
+    datomsPublisher(index, components, 0, 1000)
+
+
   def indexRange(
     attrId: String,
     start0: Any,
@@ -189,18 +285,11 @@ case class AsyncDb(
   ): CompletableFuture[Either[CognitectAnomaly, jStream[Datom]]] = {
     val start = Option(start0)
     val end = Option(end0)
-    CompletableFuture.supplyAsync { () =>
-      Channel[Any](
-        InvokeAsync.indexRange(
-          datomicDb, attrId, start, end, timeout, offset, limit
-        )
-      ).chunk
-    }.thenApply {
-      case Right(datoms) => Channel[jStream[Datom]](
-        Helper.streamOfDatoms(datoms)
-      ).chunk
-      case Left(anomaly) => async.Left(anomaly)
-    }
+    Channel.takeMap[Any, jStream[Datom]](
+      InvokeAsync.indexRange(
+        datomicDb, attrId, start, end, within(timeout), offset, limit
+      ), executor, deadline
+    )(datoms => Helper.streamOfDatoms(datoms))
   }
 
   def indexRange[T](
@@ -219,6 +308,56 @@ case class AsyncDb(
     indexRange(attrId, null, null, 0, 0, 1000)
 
 
+  // Page of datoms decoded into columns
+  def indexRangeBatch(
+    attrId: String,
+    start: Any,
+    end: Any,
+    timeout: Int,
+    offset: Int,
+    limit: Int
+  ): CompletableFuture[Either[CognitectAnomaly, DatomBatch]] = {
+    Channel.takeMap[Any, DatomBatch](
+      InvokeAsync.indexRange(
+        datomicDb, attrId, Option(start), Option(end), within(timeout), offset, limit
+      ), executor, deadline
+    )(datoms => Helper.datomBatch(datoms))
+  }
+
+  def indexRangeBatch(
+    attrId: String,
+    start: Any,
+    end: Any
+  ): CompletableFuture[Either[CognitectAnomaly, DatomBatch]] =
+    indexRangeBatch(attrId, start, end, 0, 0, 1000)
+
+
+  // Datoms fetched lazily in pages, each resuming from the last value.
+  // The first chunk is taken without blocking, the following are waited for
+  // by the thread consuming the stream.
+  def indexRangePaged(
+    attrId: String,
+    start: Any,
+    end: Any,
+    timeout: Int,
+    pageSize: Int
+  ): CompletableFuture[Either[CognitectAnomaly, jStream[Datom]]] = {
+    Channel.bridge(
+      DatomPages.indexRangeAsync(
+        InvokeAsync, datomicDb, attrId, Option(start), Option(end), timeout, pageSize, deadline
+      ),
+      executor
+    )(pages => Helper.streamOfDatomPages(pages))
+  }
+
+  def indexRangePaged(
+    attrId: String,
+    start: Any,
+    end: Any
+  ): CompletableFuture[Either[CognitectAnomaly, jStream[Datom]]] =
+    indexRangePaged(attrId, start, end, 0, 1000)
+
+
   // Pull --------------------------------------
 
   def pull(
@@ -228,11 +367,11 @@ case class AsyncDb(
     offset: Int,
     limit: Int
   ): CompletableFuture[Either[CognitectAnomaly, jMap[_, _]]] = {
-    CompletableFuture.supplyAsync { () =>
-      Channel[jMap[_, _]](
-        InvokeAsync.pull(datomicDb, selector, eid, timeout, offset, limit)
-      ).chunk
-    }
+    Channel.take[jMap[_, _]](
+      InvokeAsync.pull(datomicDb, selector, eid, within(timeout), offset, limit),
+      executor,
+      deadline
+    )
   }
 
   def pull(selector: String, eid: Any, limit: Int)
@@ -253,18 +392,11 @@ case class AsyncDb(
     offset: Int,
     limit: Int,
   ): CompletableFuture[Either[CognitectAnomaly, jStream[_]]] = {
-    CompletableFuture.supplyAsync { () =>
-      Channel[Any](
-        InvokeAsync.indexPull(
-          datomicDb, index, selector, start, reverse, timeout, offset, limit
-        )
-      ).chunk
-    }.thenApply {
-      case Right(indexPull) => Channel[jStream[_]](
-        indexPull.asInstanceOf[jCollection[_]].stream()
-      ).chunk
-      case Left(anomaly)    => async.Left(anomaly)
-    }
+    Channel.takeMap[Any, jStream[_]](
+      InvokeAsync.indexPull(
+        datomicDb, index, selector, start, reverse, within(timeout), offset, limit
+      ), executor, deadline
+    )(indexPull => indexPull.asInstanceOf[jCollection[_]].stream())
   }
 
   def indexPull(
@@ -1,45 +1,217 @@
 package datomicJava.client.api.async
 
-import clojure.lang.PersistentArrayMap
+import java.util.concurrent.{CancellationException, CompletableFuture, CompletionException, ExecutionException, Executor, Flow, ForkJoinPool}
+import clojure.lang.{AFn, PersistentArrayMap}
 import datomic.Util._
 import datomicClient._
-import datomicClient.anomaly.{AnomalyWrapper, CognitectAnomaly}
+import datomicClient.anomaly.{AnomalyWrapper, CognitectAnomaly, Interrupted}
 import datomicJava.client.api.async
 
 // Mock wrapper around clojure.core.async.ManyToManyChannel
 // To be properly implemented by consuming language (java/scala)
 case class Channel[T](
   channelOrInternal: AnyRef,
-  transform: Option[AnyRef => T] = None
+  transform: Option[AnyRef => T] = None,
+  executor: Executor = ForkJoinPool.commonPool(),
+  deadline: Option[Deadline] = None
 ) extends ClojureBridge with AnomalyWrapper {
 
 
+  /** Channel head taken while blocking the calling thread.
+   *
+   * With a deadline, waiting is abandoned and the channel closed when the
+   * deadline expires or the waiting thread is interrupted.
+   */
   def chunk: Either[CognitectAnomaly, T] = {
     // Consume channel head
     channelOrInternal match {
-      case channel: clojure.lang.IType =>
-        coreAsyncFn("<!!").invoke(channel) match {
-          // Empty result
-          case null =>
-            Right(null.asInstanceOf[T])
-
-          // Anomaly
-          case anomalyMap: PersistentArrayMap
-            if anomalyMap.containsKey(read(":cognitect.anomalies/category")) =>
-            Left(anomaly(anomalyMap))
-
-          // Chunks with type transformation
-          case chunk if transform.nonEmpty =>
-            async.Right(transform.get(chunk))
-
-          // Chunks casted
-          case chunk =>
-            async.Right(chunk.asInstanceOf[T])
+      case _: clojure.lang.IType if deadline.nonEmpty =>
+        // Completed by the take! callback itself so that waiting doesn't
+        // depend on a free thread of `executor`
+        val future = chunkAsync(Channel.sameThread)
+        try {
+          future.get()
+        } catch {
+          case e: ExecutionException => throw e.getCause
+
+          case _: InterruptedException =>
+            future.cancel(false)
+            Thread.currentThread.interrupt()
+            async.Left(Interrupted(ErrorMsg.interrupted))
         }
 
+      case channel: clojure.lang.IType =>
+        head(CoreAsync.<!!.invoke(channel))
+
       // Internal types like TxReport etc.
       case internal =>
         async.Right(internal.asInstanceOf[T])
     }
   }
+
+
+  /** Channel head delivered by a core.async `take!` callback.
+   *
+   * No thread is blocked while waiting. The future is completed on
+   * `executor` so that dependent stages run there and not on the core.async
+   * dispatch threads.
+   *
+   * Cancelling the future or an expired deadline closes the channel. On
+   * expiry the future is completed with an `Interrupted` anomaly.
+   */
+  def chunkAsync: CompletableFuture[Either[CognitectAnomaly, T]] = chunkAsync(executor)
+
+  private def chunkAsync(executor: Executor): CompletableFuture[Either[CognitectAnomaly, T]] = {
+    val future = new CompletableFuture[Either[CognitectAnomaly, T]]()
+    channelOrInternal match {
+      case channel: clojure.lang.IType =>
+        future.whenComplete { (_: Either[CognitectAnomaly, T], failure: Throwable) =>
+          if (failure.isInstanceOf[CancellationException])
+            CoreAsync.close.invoke(channel)
+          ()
+        }
+        deadline.foreach { d =>
+          val expiry = Deadline.schedule(d) {
+            if (future.complete(async.Left(Interrupted(ErrorMsg.deadline))))
+              CoreAsync.close.invoke(channel)
+          }
+          future.whenComplete { (_: Either[CognitectAnomaly, T], _: Throwable) =>
+            expiry.cancel(false)
+            ()
+          }
+        }
+        CoreAsync.take.invoke(channel, new AFn {
+          override def invoke(value: AnyRef): AnyRef = {
+            executor.execute { () =>
+              try {
+                future.complete(head(value))
+              } catch {
+                case e: Throwable => future.completeExceptionally(e)
+              }
+            }
+            null
+          }
+        })
+
+      // Internal types like TxReport etc.
+      case internal =>
+        future.complete(async.Right(internal.asInstanceOf[T]))
+    }
+    future
+  }
+
+
+  private def head(value: AnyRef): Either[CognitectAnomaly, T] = value match {
+    // Empty result
+    case null =>
+      Right(null.asInstanceOf[T])
+
+    // Anomaly
+    case anomalyMap: PersistentArrayMap
+      if anomalyMap.containsKey(Kw.anomalyCategory) =>
+      Left(anomaly(anomalyMap))
+
+    // Chunks with type transformation
+    case chunk if transform.nonEmpty =>
+      async.Right(transform.get(chunk))
+
+    // Chunks casted
+    case chunk =>
+      async.Right(chunk.asInstanceOf[T])
+  }
+
+
+  /** Closes the channel so that the pending request is abandoned. */
+  def close(): Unit = channelOrInternal match {
+    case channel: clojure.lang.IType => CoreAsync.close.invoke(channel)
+    case _                           => ()
+  }
+
+
+  /** Publisher of all chunks, taken as the subscriber requests them. */
+  def publisher(executor: Executor): Flow.Publisher[T] =
+    new ChannelPublisher[T](channelOrInternal, transform, executor, deadline)
+
+  def publisher: Flow.Publisher[T] = publisher(executor)
+}
+
+object Channel {
+
+  private val sameThread: Executor = (task: Runnable) => task.run()
+
+  /** Head of the channel returned by `invoke` without blocking a thread.
+   *
+   * Exceptions thrown when invoking complete the future exceptionally.
+   */
+  def take[T](
+    invoke: => AnyRef,
+    executor: Executor,
+    deadline: Option[Deadline] = None
+  ): CompletableFuture[Either[CognitectAnomaly, T]] = {
+    try {
+      if (deadline.exists(_.isExpired))
+        CompletableFuture.completedFuture[Either[CognitectAnomaly, T]](
+          async.Left(Interrupted(ErrorMsg.deadline))
+        )
+      else
+        Channel[T](invoke, None, executor, deadline).chunkAsync
+    } catch {
+      case e: Throwable =>
+        val failed = new CompletableFuture[Either[CognitectAnomaly, T]]()
+        failed.completeExceptionally(e)
+        failed
+    }
+  }
+
+  /** Head of the channel returned by `invoke` decoded with `decode`.
+   *
+   * Cancelling a dependent stage doesn't cancel the stage it depends on, so
+   * cancelling the returned future is passed on to close the channel.
+   */
+  def takeMap[T, R](
+    invoke: => AnyRef,
+    executor: Executor,
+    deadline: Option[Deadline]
+  )(decode: T => R): CompletableFuture[Either[CognitectAnomaly, R]] = {
+    val source = take[T](invoke, executor, deadline)
+    cancelling(source, source.thenApply[Either[CognitectAnomaly, R]] {
+      case Right(value)  => async.Right(decode(value))
+      case Left(anomaly) => async.Left(anomaly)
+    })
+  }
+
+  /** Future of a shared non-blocking operation decoded on `executor`.
+   *
+   * Anomalies failing `future` become Left values. Cancelling the returned
+   * future cancels `future`.
+   */
+  def bridge[T, R](future: CompletableFuture[T], executor: Executor)(
+    decode: T => R
+  ): CompletableFuture[Either[CognitectAnomaly, R]] = {
+    cancelling(future, future.handleAsync[Either[CognitectAnomaly, R]](
+      (value: T, failure: Throwable) => failure match {
+        case null => async.Right(decode(value))
+
+        case e: CompletionException if e.getCause.isInstanceOf[CognitectAnomaly] =>
+          async.Left(e.getCause.asInstanceOf[CognitectAnomaly])
+
+        case anomaly: CognitectAnomaly => async.Left(anomaly)
+        case e                         => throw e
+      },
+      executor
+    ))
+  }
+
+  /** `dependent` that cancels `source` when cancelled. */
+  def cancelling[R](
+    source: CompletableFuture[_],
+    dependent: CompletableFuture[R]
+  ): CompletableFuture[R] = {
+    dependent.whenComplete { (_: R, failure: Throwable) =>
+      if (failure.isInstanceOf[CancellationException])
+        source.cancel(false)
+      ()
+    }
+    dependent
+  }
 }
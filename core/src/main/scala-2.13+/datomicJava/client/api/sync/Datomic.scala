@@ -82,8 +82,8 @@ object Datomic extends ClojureBridge with AnomalyWrapper {
   @varargs
   def q(query: jList[_], db: Db, args: Any*): jCollection[jList[AnyRef]] = {
     q(Util.map(
-      read(":query"), edn(query),
-      read(":args"), list(db.datomicDb +: args: _*)
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args: _*)
     ))
   }
 
@@ -91,11 +91,24 @@ object Datomic extends ClojureBridge with AnomalyWrapper {
   @varargs
   def q(query: String, db: Db, args: Any*): jCollection[jList[AnyRef]] = {
     q(Util.map(
-      read(":query"), read(query),
-      read(":args"), list(db.datomicDb +: args: _*)
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args: _*)
     ))
   }
 
+  // Queries run concurrently on a (virtual) thread each. Fails on first failure.
+  // Only the calls of this helper fan out, other sync calls block the calling
+  // thread as before and there is no client-wide virtual-thread mode.
+  def qAll(argMaps: jList[jMap[_, _]]): jList[jCollection[jList[AnyRef]]] = {
+    FanOut.all(argMaps.size, i => q(argMaps.get(i)))
+  }
+
+  // Queries as String without args
+  def qAll(queries: jList[String], db: Db): jList[jCollection[jList[AnyRef]]] = {
+    FanOut.all(queries.size, i => q(queries.get(i), db))
+  }
+
+
   // Query as data structure or String + optional :offset, :limit, :timeout params
   // (see tests)
   def qseq(map: jMap[_, _]): jStream[_] = {
@@ -106,8 +119,8 @@ object Datomic extends ClojureBridge with AnomalyWrapper {
   @varargs
   def qseq(query: jList[_], db: Db, args: Any*): jStream[_] = {
     qseq(Util.map(
-      read(":query"), edn(query),
-      read(":args"), list(db.datomicDb +: args: _*)
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args: _*)
     ))
   }
 
@@ -115,8 +128,8 @@ object Datomic extends ClojureBridge with AnomalyWrapper {
   @varargs
   def qseq(query: String, db: Db, args: Any*): jStream[_] = {
     qseq(Util.map(
-      read(":query"), read(query),
-      read(":args"), list(db.datomicDb +: args: _*)
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args: _*)
     ))
   }
 }
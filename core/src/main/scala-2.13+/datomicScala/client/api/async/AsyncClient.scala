@@ -5,15 +5,20 @@ import datomic.Util
 import datomic.Util._
 import datomicClient._
 import datomicClient.anomaly.{AnomalyWrapper, CognitectAnomaly}
-import scala.concurrent.ExecutionContext.Implicits.global
-import scala.concurrent.Future
+import scala.concurrent.{ExecutionContext, Future}
 
 
 case class AsyncClient(
   forPeerServer: Boolean,
-  asyncDatomicClient: AnyRef
+  asyncDatomicClient: AnyRef,
+  ec: ExecutionContext = ExecutionContext.global
 ) extends AnomalyWrapper with ClojureBridge {
 
+  implicit private def executionContext: ExecutionContext = ec
+
+  /** Same client with futures of it and of its connections run on `ec`. */
+  def withExecutionContext(ec: ExecutionContext): AsyncClient = copy(ec = ec)
+
   /**
    * Upgrading Datomic Schema
    *
@@ -42,8 +47,8 @@ case class AsyncClient(
 
   def administerSystem(dbName: String): jMap[_, _] = administerSystem(
     Util.map(
-      read(":db-name"), read(dbName),
-      read(":action"), read(":upgrade-schema"),
+      Kw.dbName, read(dbName),
+      Kw.action, Kw.upgradeSchema,
     )
   )
 
@@ -52,7 +57,7 @@ case class AsyncClient(
     Channel[AnyRef](
       InvokeAsync.connect(asyncDatomicClient, dbName)
     ).lazyList.head match {
-      case Right(datomicConn) => Right(AsyncConnection(datomicConn))
+      case Right(datomicConn) => Right(AsyncConnection(datomicConn, ec))
       case Left(anomaly)      => Left(anomaly)
     }
   }
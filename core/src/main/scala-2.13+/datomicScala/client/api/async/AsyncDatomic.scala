@@ -2,15 +2,15 @@ package datomicScala.client.api.async
 
 import java.util.stream.{Stream => jStream}
 import java.util.{Collection => jCollection, List => jList, Map => jMap}
-import cats.effect.IO
+import cats.effect.{Async, IO}
 import clojure.lang.{LazySeq, PersistentVector}
 import com.amazonaws.auth.AWSCredentialsProviderChain
 import datomic.Util
 import datomic.Util._
 import datomicClient._
 import datomicClient.anomaly.CognitectAnomaly
-import scala.concurrent.ExecutionContext.Implicits.global
-import scala.concurrent.Future
+import datomicScala.client.api.CloseableIterator
+import scala.concurrent.{ExecutionContext, Future}
 
 object AsyncDatomic extends ClojureBridge {
 
@@ -75,6 +75,45 @@ object AsyncDatomic extends ClojureBridge {
   )
 
 
+  // Clients running their futures and those of derived connections, dbs
+  // and tx reports on `ec` instead of the global ExecutionContext
+
+  def clientCloud(
+    region: String,
+    system: String,
+    endpoint: String,
+    credsProvider: AWSCredentialsProviderChain,
+    proxyPort: Int,
+    ec: ExecutionContext
+  ): AsyncClient =
+    clientCloud(region, system, endpoint, credsProvider, proxyPort).withExecutionContext(ec)
+
+  def clientCloud(
+    region: String,
+    system: String,
+    endpoint: String,
+    credsProfile: String,
+    proxyPort: Int,
+    ec: ExecutionContext
+  ): AsyncClient =
+    clientCloud(region, system, endpoint, credsProfile, proxyPort).withExecutionContext(ec)
+
+  def clientDevLocal(
+    system: String,
+    storageDir: String,
+    ec: ExecutionContext
+  ): AsyncClient = clientDevLocal(system, storageDir).withExecutionContext(ec)
+
+  def clientPeerServer(
+    accessKey: String,
+    secret: String,
+    endpoint: String,
+    validateHostnames: Boolean,
+    ec: ExecutionContext
+  ): AsyncClient =
+    clientPeerServer(accessKey, secret, endpoint, validateHostnames).withExecutionContext(ec)
+
+
   // Chunks from clojure Channels are returned asynchronously as Futures
   // of either a CognitectAnomaly or a java Stream of lists of data.
 
@@ -84,8 +123,9 @@ object AsyncDatomic extends ClojureBridge {
   //   :limit   (optional)
   //   :timeout (optional)
   //   :chunk   (optional)
-  def q(argMap: jMap[_, _])
-  : Future[LazyList[Either[CognitectAnomaly, jStream[_]]]] = Future {
+  def q(argMap: jMap[_, _])(
+    implicit ec: ExecutionContext = ExecutionContext.global
+  ): Future[LazyList[Either[CognitectAnomaly, jStream[_]]]] = Future {
     Channel[jStream[_]](
       InvokeAsync.q(argMap),
       Some {
@@ -99,36 +139,60 @@ object AsyncDatomic extends ClojureBridge {
   def q(query: jList[_], db: AsyncDb, args: Any*)
   : Future[LazyList[Either[CognitectAnomaly, jStream[_]]]] = {
     q(Util.map(
-      read(":query"), edn(query),
-      read(":args"), list(db.datomicDb +: args: _*)
-    ))
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args: _*)
+    ))(db.ec)
   }
 
   // Query as String
   def q(query: String, db: AsyncDb, args: Any*)
   : Future[LazyList[Either[CognitectAnomaly, jStream[_]]]] = {
     q(Util.map(
-      read(":query"), read(query),
-      read(":args"), list(db.datomicDb +: args: _*)
-    ))
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args: _*)
+    ))(db.ec)
+  }
+
+  // Single-pass alternative to q that doesn't memoize chunks. The first chunk
+  // is taken asynchronously. Close the iterator to release the channel early.
+  def qIterator(argMap: jMap[_, _])(
+    implicit ec: ExecutionContext = ExecutionContext.global
+  ): Future[CloseableIterator[Either[CognitectAnomaly, jStream[_]]]] = Future {
+    val it = Channel[jStream[_]](
+      InvokeAsync.q(argMap),
+      Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
+    ).iterator
+    it.hasNext
+    it
   }
 
   // fs2 Stream implementation example
   // This allows the first chunk to be lazy
   // Usage is flexible but verbose
-  def qStream(argMap: jMap[_, _])
-  : fs2.Stream[IO, Either[CognitectAnomaly, jStream[_]]] = {
+  def qStream(argMap: jMap[_, _])(
+    implicit ec: ExecutionContext = ExecutionContext.global
+  ): fs2.Stream[IO, Either[CognitectAnomaly, jStream[_]]] = {
     Channel[jStream[_]](
       InvokeAsync.q(argMap),
       Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
     ).myTerminatedStream
   }
 
+  // Rows of all chunks as an fs2 Stream, see ChannelStream
+  def qSource[F[_] : Async](
+    argMap: jMap[_, _],
+    prefetch: Int = 1
+  ): fs2.Stream[F, jList[AnyRef]] =
+    ChannelStream[F, jList[AnyRef]](
+      InvokeAsync.q(argMap), _.asInstanceOf[jList[AnyRef]], prefetch
+    )
+
 
   // Query as data structure or String + optional :offset, :limit, :timeout params
   // (see tests)
-  def qseq(argMap: jMap[_, _])
-  : Future[LazyList[Either[CognitectAnomaly, jStream[_]]]] = Future {
+  def qseq(argMap: jMap[_, _])(
+    implicit ec: ExecutionContext = ExecutionContext.global
+  ): Future[LazyList[Either[CognitectAnomaly, jStream[_]]]] = Future {
     Channel[jStream[_]](
       InvokeAsync.qseq(argMap),
       Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
@@ -139,17 +203,37 @@ object AsyncDatomic extends ClojureBridge {
   def qseq(query: jList[_], db: AsyncDb, args: Any*)
   : Future[LazyList[Either[CognitectAnomaly, jStream[_]]]] = {
     qseq(Util.map(
-      read(":query"), edn(query),
-      read(":args"), list(db.datomicDb +: args: _*)
-    ))
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args: _*)
+    ))(db.ec)
   }
 
   // Query as String
   def qseq(query: String, db: AsyncDb, args: Any*)
   : Future[LazyList[Either[CognitectAnomaly, jStream[_]]]] = {
     qseq(Util.map(
-      read(":query"), read(query),
-      read(":args"), list(db.datomicDb +: args: _*)
-    ))
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args: _*)
+    ))(db.ec)
+  }
+
+  // Results of all chunks as an fs2 Stream, see ChannelStream
+  def qseqSource[F[_] : Async](
+    argMap: jMap[_, _],
+    prefetch: Int = 1
+  ): fs2.Stream[F, Any] =
+    ChannelStream[F, Any](InvokeAsync.qseq(argMap), identity, prefetch)
+
+  // Single-pass alternative to qseq that doesn't memoize chunks. The first
+  // chunk is taken asynchronously. Close the iterator to release the channel early.
+  def qseqIterator(argMap: jMap[_, _])(
+    implicit ec: ExecutionContext = ExecutionContext.global
+  ): Future[CloseableIterator[Either[CognitectAnomaly, jStream[_]]]] = Future {
+    val it = Channel[jStream[_]](
+      InvokeAsync.qseq(argMap),
+      Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
+    ).iterator
+    it.hasNext
+    it
   }
 }
@@ -1,12 +1,13 @@
 package datomicScala.client.api.sync
 
 import java.io.{Reader, StringReader}
+import java.nio.file.Path
 import java.util.{List => jList, Map => jMap}
 import datomic.Util
 import datomic.Util._
 import datomicClient._
 import datomicClient.anomaly.AnomalyWrapper
-import datomicScala.client.api.{Datom, Helper}
+import datomicScala.client.api.{Datom, Helper, TxRangeCursor}
 
 
 case class Connection(datomicConn: AnyRef) extends AnomalyWrapper {
@@ -27,6 +28,11 @@ case class Connection(datomicConn: AnyRef) extends AnomalyWrapper {
     Invoke.transact(datomicConn, stmts).asInstanceOf[jMap[_, _]]
   )
 
+  // Tx data bound from a template compiled once
+  def transact(template: TxTemplate, values: Any*): TxReport = TxReport(
+    Invoke.transactTxData(datomicConn, template.bind(values: _*)).asInstanceOf[jMap[_, _]]
+  )
+
   def transact(stmtsReader: Reader): TxReport =
     transact(readAll(stmtsReader).get(0).asInstanceOf[jList[_]])
 
@@ -34,6 +40,24 @@ case class Connection(datomicConn: AnyRef) extends AnomalyWrapper {
     transact(readAll(new StringReader(edn)).get(0).asInstanceOf[jList[_]])
 
 
+  // EDN tx data read incrementally and transacted in bounded transactions
+  def bulkImport(
+    path: Path,
+    maxDatoms: Int = 1000,
+    maxChars: Long = 1 << 20,
+    onProgress: BulkImport.Progress => Unit = _ => ()
+  ): BulkImport.Progress =
+    new BulkImport(datomicConn, maxDatoms, maxChars, p => onProgress(p)).run(path)
+
+  def bulkImport(
+    stmtsReader: Reader,
+    maxDatoms: Int,
+    maxChars: Long,
+    onProgress: BulkImport.Progress => Unit
+  ): BulkImport.Progress =
+    new BulkImport(datomicConn, maxDatoms, maxChars, p => onProgress(p)).run(stmtsReader)
+
+
 
   def txRange(
     timePointStart: Option[Any] = None, // Int | Long | java.util.Date
@@ -62,11 +86,22 @@ case class Connection(datomicConn: AnyRef) extends AnomalyWrapper {
     Helper.nestedTxsArray(isDevLocal, rawTxs0)
   }
 
+  // Flyweight cursor over txs and their datoms
+  def txRangeCursor(
+    timePointStart: Option[Any] = None, // Int | Long | java.util.Date
+    timePointEnd: Option[Any] = None,
+    timeout: Int = 0,
+    offset: Int = 0,
+    limit: Int = 1000
+  ): TxRangeCursor = new TxRangeCursor(
+    Invoke.txRange(datomicConn, timePointStart, timePointEnd, timeout, offset, limit)
+  )
+
 
   // Convenience method for single invocation from connection
   def widh(stmts: jList[_]): Db = {
     val rawTxReport = Invoke.`with`(withDb, stmts).asInstanceOf[jMap[_, _]]
-    val dbAfter  = rawTxReport.get(read(":db-after"))
+    val dbAfter  = rawTxReport.get(Kw.dbAfter)
     Db(dbAfter.asInstanceOf[AnyRef])
   }
 
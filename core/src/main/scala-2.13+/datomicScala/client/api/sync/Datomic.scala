@@ -1,11 +1,13 @@
 package datomicScala.client.api.sync
 
-import java.util.{Collection => jCollection, List => jList, Map => jMap}
+import java.lang.{Iterable => jIterable}
+import java.util.{Collections, Collection => jCollection, Iterator => jIterator, List => jList, Map => jMap}
 import com.amazonaws.auth.AWSCredentialsProviderChain
 import datomic.Util
 import datomic.Util.{list, read}
 import datomicClient.anomaly.AnomalyWrapper
-import datomicClient.{ClojureBridge, Invoke}
+import datomicScala.client.api.CloseableIterator
+import datomicClient.{ClojureBridge, FanOut, Invoke, Kw}
 import scala.jdk.StreamConverters._
 
 
@@ -71,16 +73,33 @@ object Datomic extends ClojureBridge with AnomalyWrapper {
   // Query as data structure
   def q(query: jList[_], db: Db, args: Any*): jCollection[jList[AnyRef]] = {
     q(Util.map(
-      read(":query"), edn(query),
-      read(":args"), list(db.datomicDb +: args: _*)
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args: _*)
     ))
   }
 
   // Query as String
   def q(query: String, db: Db, args: Any*): jCollection[jList[AnyRef]] = {
     q(Util.map(
-      read(":query"), read(query),
-      read(":args"), list(db.datomicDb +: args: _*)
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args: _*)
+    ))
+  }
+
+
+  // Queries run concurrently on a (virtual) thread each. Fails on first failure.
+  // Only the calls of this helper fan out, other sync calls block the calling
+  // thread as before and there is no client-wide virtual-thread mode.
+  def qAll(argMaps: Seq[jMap[_, _]]): List[jCollection[jList[AnyRef]]] = {
+    val maps    = argMaps.toIndexedSeq
+    val results = FanOut.all(maps.size, i => q(maps(i)))
+    List.tabulate(maps.size)(results.get)
+  }
+
+  // Queries as String without args
+  def qAll(queries: Seq[String], db: Db): List[jCollection[jList[AnyRef]]] = {
+    qAll(queries.map(query =>
+      Util.map(Kw.query, read(query), Kw.args, list(db.datomicDb))
     ))
   }
 
@@ -94,15 +113,54 @@ object Datomic extends ClojureBridge with AnomalyWrapper {
   // Query as data structure
   def qseq(query: jList[_], db: Db, args: Any*): LazyList[Any] = {
     qseq(Util.map(
-      read(":query"), edn(query),
-      read(":args"), list(db.datomicDb +: args: _*)
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args: _*)
     ))
   }
 
   def qseq(query: String, db: Db, args: Any*): LazyList[Any] = {
     qseq(Util.map(
-      read(":query"), read(query),
-      read(":args"), list(db.datomicDb +: args: _*)
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args: _*)
+    ))
+  }
+
+
+  // Single-pass alternative to qseq that doesn't memoize results, so that
+  // consumed results can be garbage collected. Closing before the end drops
+  // the rest of the lazy results unrealized.
+  def qseqIterator(argMap: jMap[_, _]): CloseableIterator[Any] = {
+    val it: jIterator[_] = Invoke.qseq(argMap) match {
+      case null              => Collections.emptyIterator
+      case seq: jIterable[_] => seq.iterator
+
+      // Invoke returned a non-seq value
+      case other => throw new IllegalArgumentException(
+        "Expected a seq of query results but got " + other
+      )
+    }
+    new CloseableIterator[Any] {
+      private var rest = it
+
+      override def hasNext: Boolean = rest.hasNext
+      override def next(): Any = rest.next
+      override def close(): Unit = rest = Collections.emptyIterator
+    }
+  }
+
+  // Query as data structure
+  def qseqIterator(query: jList[_], db: Db, args: Any*): CloseableIterator[Any] = {
+    qseqIterator(Util.map(
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args: _*)
+    ))
+  }
+
+  // Query as String
+  def qseqIterator(query: String, db: Db, args: Any*): CloseableIterator[Any] = {
+    qseqIterator(Util.map(
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args: _*)
     ))
   }
 }
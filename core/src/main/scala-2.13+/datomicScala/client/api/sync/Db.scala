@@ -1,11 +1,12 @@
 package datomicScala.client.api.sync
 
 import java.io.{Reader, StringReader}
+import java.util.concurrent.Executor
 import java.util.stream.{Stream => jStream}
-import java.util.{Date, List => jList, Map => jMap}
+import java.util.{Date, Spliterator, List => jList, Map => jMap}
 import datomic.Util.readAll
-import datomicClient.{DbLookup, Invoke}
-import datomicScala.client.api.{Datom, DbStats, Helper}
+import datomicClient.{DatomPages, DbLookup, FanOut, Invoke, PartitionedScan, Prefetcher}
+import datomicScala.client.api.{Datom, DatomBatch, DatomCursor, DbStats, Helper, PrimitiveDatom}
 
 case class Db(
   datomicDb: AnyRef,
@@ -99,6 +100,93 @@ case class Db(
     )
   }
 
+  // Same as `datoms` with unboxed ids
+  def datomsPrimitive(
+    index: String,
+    components: jList[_],
+    timeout: Int = 0,
+    offset: Int = 0,
+    limit: Int = 1000
+  ): jStream[PrimitiveDatom] = {
+    Helper.streamOfPrimitiveDatoms(
+      Invoke.datoms(datomicDb, index, components, timeout, offset, limit)
+    )
+  }
+
+  // Page of datoms decoded into columns
+  def datomsBatch(
+    index: String,
+    components: jList[_],
+    timeout: Int = 0,
+    offset: Int = 0,
+    limit: Int = 1000
+  ): DatomBatch = {
+    Helper.datomBatch(
+      Invoke.datoms(datomicDb, index, components, timeout, offset, limit)
+    )
+  }
+
+  // Flyweight cursor over datoms
+  def datomsCursor(
+    index: String,
+    components: jList[_],
+    timeout: Int = 0,
+    offset: Int = 0,
+    limit: Int = 1000
+  ): DatomCursor = {
+    new DatomCursor(
+      Invoke.datoms(datomicDb, index, components, timeout, offset, limit)
+    )
+  }
+
+  // Datoms fetched lazily in pages with memory bounded by the page size.
+  // Unlike indexRangePaged, pages are the chunks of one server-side cursor,
+  // not requests resuming from a key, since datoms can't seek to a key.
+  def datomsPaged(
+    index: String,
+    components: jList[_],
+    timeout: Int = 0,
+    pageSize: Int = 1000
+  ): jStream[Datom] = {
+    Helper.streamOfDatomPages(
+      DatomPages.datoms(Invoke, datomicDb, index, components, timeout, pageSize)
+    )
+  }
+
+  // Datoms in pages with up to `depth` next pages fetched ahead on `executor`
+  def datomsPrefetched(
+    index: String,
+    components: jList[_],
+    timeout: Int = 0,
+    pageSize: Int = 1000,
+    depth: Int = 2,
+    maxBuffered: Int = 10000,
+    executor: Executor = Prefetcher.defaultExecutor
+  ): jStream[Datom] = {
+    Helper.streamOfDatomPages(
+      Prefetcher.datoms(
+        datomicDb, index, components, timeout, pageSize,
+        executor, depth, maxBuffered
+      )
+    )
+  }
+
+  // Datoms of partitions given by their components, fetched concurrently
+  // when consumed with a parallel stream
+  def datomsPartitioned(
+    index: String,
+    partitions: jList[jList[_]],
+    timeout: Int = 0,
+    pageSize: Int = 1000,
+    ordered: Boolean = true,
+    executor: Executor = Prefetcher.defaultExecutor
+  ): Spliterator[Datom] = {
+    PartitionedScan.datoms(
+      datomicDb, index, partitions, timeout, pageSize, ordered, executor,
+      Helper.getDatom
+    )
+  }
+
 
   def indexRange(
     attrId: String,
@@ -115,6 +203,106 @@ case class Db(
     )
   }
 
+  // Same as `indexRange` with unboxed ids
+  def indexRangePrimitive(
+    attrId: String,
+    startValue: Option[Any] = None,
+    endValue: Option[Any] = None,
+    timeout: Int = 0,
+    offset: Int = 0,
+    limit: Int = 1000
+  ): jStream[PrimitiveDatom] = {
+    Helper.streamOfPrimitiveDatoms(
+      Invoke.indexRange(
+        datomicDb, attrId, startValue, endValue, timeout, offset, limit
+      )
+    )
+  }
+
+  // Page of datoms decoded into columns
+  def indexRangeBatch(
+    attrId: String,
+    startValue: Option[Any] = None,
+    endValue: Option[Any] = None,
+    timeout: Int = 0,
+    offset: Int = 0,
+    limit: Int = 1000
+  ): DatomBatch = {
+    Helper.datomBatch(
+      Invoke.indexRange(
+        datomicDb, attrId, startValue, endValue, timeout, offset, limit
+      )
+    )
+  }
+
+  // Flyweight cursor over datoms
+  def indexRangeCursor(
+    attrId: String,
+    startValue: Option[Any] = None,
+    endValue: Option[Any] = None,
+    timeout: Int = 0,
+    offset: Int = 0,
+    limit: Int = 1000
+  ): DatomCursor = {
+    new DatomCursor(
+      Invoke.indexRange(
+        datomicDb, attrId, startValue, endValue, timeout, offset, limit
+      )
+    )
+  }
+
+  // Datoms fetched lazily in pages, each resuming from the last value
+  def indexRangePaged(
+    attrId: String,
+    startValue: Option[Any] = None,
+    endValue: Option[Any] = None,
+    timeout: Int = 0,
+    pageSize: Int = 1000
+  ): jStream[Datom] = {
+    Helper.streamOfDatomPages(
+      DatomPages.indexRange(
+        Invoke, datomicDb, attrId, startValue, endValue, timeout, pageSize
+      )
+    )
+  }
+
+  // Datoms in pages with up to `depth` next pages fetched ahead on `executor`
+  def indexRangePrefetched(
+    attrId: String,
+    startValue: Option[Any] = None,
+    endValue: Option[Any] = None,
+    timeout: Int = 0,
+    pageSize: Int = 1000,
+    depth: Int = 2,
+    maxBuffered: Int = 10000,
+    executor: Executor = Prefetcher.defaultExecutor
+  ): jStream[Datom] = {
+    Helper.streamOfDatomPages(
+      Prefetcher.indexRange(
+        datomicDb, attrId, startValue, endValue, timeout, pageSize,
+        executor, depth, maxBuffered
+      )
+    )
+  }
+
+  // Datoms in value ranges of about `stride` datoms, fetched concurrently
+  // when consumed with a parallel stream
+  def indexRangePartitioned(
+    attrId: String,
+    startValue: Option[Any] = None,
+    endValue: Option[Any] = None,
+    stride: Int = 100000,
+    timeout: Int = 0,
+    pageSize: Int = 1000,
+    ordered: Boolean = true,
+    executor: Executor = Prefetcher.defaultExecutor
+  ): Spliterator[Datom] = {
+    PartitionedScan.indexRange(
+      datomicDb, attrId, startValue, endValue, stride, timeout, pageSize,
+      ordered, executor, Helper.getDatom
+    )
+  }
+
 
   // Pull --------------------------------------
 
@@ -130,6 +318,19 @@ case class Db(
     ).asInstanceOf[jMap[_, _]]
   }
 
+  // Pulls run concurrently on a (virtual) thread each. Fails on first failure.
+  // Only the calls of this helper fan out, other sync calls block the calling
+  // thread as before and there is no client-wide virtual-thread mode.
+  def pullAll(
+    selector: String,
+    eids: Seq[Any],
+    timeout: Int = 0
+  ): List[jMap[_, _]] = {
+    val ids     = eids.toIndexedSeq
+    val results = FanOut.all(ids.size, i => pull(selector, ids(i), timeout))
+    List.tabulate(ids.size)(results.get)
+  }
+
 
   def indexPull(
     index: String,
@@ -144,4 +345,24 @@ case class Db(
       datomicDb, index, selector, start, reverse, timeout, offset, limit
     ).asInstanceOf[clojure.lang.ASeq].stream()
   }
+
+  // Pulled entities in pages with up to `depth` next pages fetched ahead on `executor`
+  def indexPullPrefetched(
+    index: String,
+    selector: String,
+    start: String,
+    reverse: Boolean = false,
+    timeout: Int = 0,
+    pageSize: Int = 1000,
+    depth: Int = 2,
+    maxBuffered: Int = 10000,
+    executor: Executor = Prefetcher.defaultExecutor
+  ): jStream[jMap[_, _]] = {
+    Helper.mkStream(
+      Prefetcher.indexPull[jMap[_, _]](
+        datomicDb, index, selector, start, reverse, timeout, pageSize,
+        executor, depth, maxBuffered
+      )
+    )
+  }
 }
\ No newline at end of file
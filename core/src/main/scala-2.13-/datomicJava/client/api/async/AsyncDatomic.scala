@@ -1,12 +1,13 @@
 package datomicJava.client.api.async
 
-import java.util.concurrent.CompletableFuture
+import java.util.concurrent.{CancellationException, CompletableFuture, Executor, ForkJoinPool}
 import java.util.stream.Stream
 import java.util.{List => jList, Map => jMap, Collection => jCollection}
 import com.amazonaws.auth.AWSCredentialsProviderChain
 import datomic.Util
 import datomic.Util._
 import datomicClient._
+import datomicClient.anomaly.Interrupted
 import scala.annotation.varargs
 
 
@@ -30,6 +31,17 @@ object AsyncDatomic extends ClojureBridge {
     )
   )
 
+  def clientCloud(
+    region: String,
+    system: String,
+    endpoint: String,
+    credsProvider: AWSCredentialsProviderChain,
+    proxyPort: Int,
+    executor: Executor
+  ): AsyncClient = clientCloud(
+    region, system, endpoint, credsProvider, proxyPort
+  ).withExecutor(executor)
+
   // Providing creds-profile name
   def clientCloud(
     region: String,
@@ -44,6 +56,17 @@ object AsyncDatomic extends ClojureBridge {
     )
   )
 
+  def clientCloud(
+    region: String,
+    system: String,
+    endpoint: String,
+    credsProfile: String,
+    proxyPort: Int,
+    executor: Executor
+  ): AsyncClient = clientCloud(
+    region, system, endpoint, credsProfile, proxyPort
+  ).withExecutor(executor)
+
 
   def clientDevLocal(
     system: String,
@@ -59,6 +82,13 @@ object AsyncDatomic extends ClojureBridge {
     system: String
   ): AsyncClient = clientDevLocal(system, "")
 
+  // Futures of the client and its connections and dbs completed on `executor`
+  def clientDevLocal(
+    system: String,
+    storageDir: String,
+    executor: Executor
+  ): AsyncClient = clientDevLocal(system, storageDir).withExecutor(executor)
+
 
   def clientPeerServer(
     accessKey: String,
@@ -76,18 +106,34 @@ object AsyncDatomic extends ClojureBridge {
     endpoint: String,
   ): AsyncClient = clientPeerServer(accessKey, secret, endpoint, false)
 
+  def clientPeerServer(
+    accessKey: String,
+    secret: String,
+    endpoint: String,
+    validateHostnames: Boolean,
+    executor: Executor
+  ): AsyncClient = clientPeerServer(
+    accessKey, secret, endpoint, validateHostnames
+  ).withExecutor(executor)
+
 
   // Query as data structure or String + optional :offset, :limit, :timeout params
   // (see tests)
   def q(argMap: jMap[_, _])
-  : CompletableFuture[Channel[Stream[_]]] = {
-    CompletableFuture.supplyAsync { () =>
-      Channel[Stream[_]](
-        InvokeAsync.q(argMap),
-        Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
-      )
-    }
-  }
+  : CompletableFuture[Channel[Stream[_]]] = q(argMap, ForkJoinPool.commonPool())
+
+  // Query invoked and its chunks completed on `executor`
+  def q(argMap: jMap[_, _], executor: Executor)
+  : CompletableFuture[Channel[Stream[_]]] = q(argMap, executor, None)
+
+  // Query with its :timeout bounded by `deadline`. Pending chunks are
+  // abandoned and the channel closed when the deadline expires.
+  def q(argMap: jMap[_, _], executor: Executor, deadline: Deadline)
+  : CompletableFuture[Channel[Stream[_]]] = q(argMap, executor, Some(deadline))
+
+  private def q(argMap: jMap[_, _], executor: Executor, deadline: Option[Deadline])
+  : CompletableFuture[Channel[Stream[_]]] =
+    query(InvokeAsync.q(within(argMap, deadline)), executor, deadline)
 
   // Query as data structure
   @varargs
@@ -95,9 +141,9 @@ object AsyncDatomic extends ClojureBridge {
   : CompletableFuture[Channel[Stream[_]]] = {
     val args1 = args.toSeq.asInstanceOf[Seq[Object]]
     q(Util.map(
-      read(":query"), edn(query),
-      read(":args"), list(db.datomicDb +: args1: _*)
-    ))
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args1: _*)
+    ), db.executor, db.deadline)
   }
 
   // Query as String
@@ -106,23 +152,29 @@ object AsyncDatomic extends ClojureBridge {
   : CompletableFuture[Channel[Stream[_]]] = {
     val args1 = args.toSeq.asInstanceOf[Seq[Object]]
     q(Util.map(
-      read(":query"), read(query),
-      read(":args"), list(db.datomicDb +: args1: _*)
-    ))
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args1: _*)
+    ), db.executor, db.deadline)
   }
 
 
   // Query as data structure or String + optional :offset, :limit, :timeout params
   // (see tests)
   def qseq(map: jMap[_, _])
-  : CompletableFuture[Channel[Stream[_]]] = {
-    CompletableFuture.supplyAsync { () =>
-      Channel[Stream[_]](
-        datomicAsyncFn("qseq").invoke(map),
-        Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
-      )
-    }
-  }
+  : CompletableFuture[Channel[Stream[_]]] = qseq(map, ForkJoinPool.commonPool())
+
+  // Query invoked and its chunks completed on `executor`
+  def qseq(map: jMap[_, _], executor: Executor)
+  : CompletableFuture[Channel[Stream[_]]] = qseq(map, executor, None)
+
+  // Query with its :timeout bounded by `deadline`. Pending chunks are
+  // abandoned and the channel closed when the deadline expires.
+  def qseq(map: jMap[_, _], executor: Executor, deadline: Deadline)
+  : CompletableFuture[Channel[Stream[_]]] = qseq(map, executor, Some(deadline))
+
+  private def qseq(map: jMap[_, _], executor: Executor, deadline: Option[Deadline])
+  : CompletableFuture[Channel[Stream[_]]] =
+    query(InvokeAsync.qseq(within(map, deadline)), executor, deadline)
 
   // Query as data structure
   @varargs
@@ -130,9 +182,9 @@ object AsyncDatomic extends ClojureBridge {
   : CompletableFuture[Channel[Stream[_]]] = {
     val args1 = args.toSeq.asInstanceOf[Seq[Object]]
     qseq(Util.map(
-      read(":query"), edn(query),
-      read(":args"), list(db.datomicDb +: args1: _*)
-    ))
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args1: _*)
+    ), db.executor, db.deadline)
   }
 
   // Query as String
@@ -141,8 +193,55 @@ object AsyncDatomic extends ClojureBridge {
   : CompletableFuture[Channel[Stream[_]]] = {
     val args1 = args.toSeq.asInstanceOf[Seq[Object]]
     qseq(Util.map(
-      read(":query"), read(query),
-      read(":args"), list(db.datomicDb +: args1: _*)
-    ))
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args1: _*)
+    ), db.executor, db.deadline)
+  }
+
+
+  /** Channel of a query invoked without blocking.
+   *
+   * The future is completed with the channel on `executor`. Cancelling it
+   * before closes the channel. Once completed, cancel with `Channel.close`
+   * or by cancelling the futures of `chunkAsync`. An expired deadline fails
+   * the future with an `Interrupted` anomaly without invoking the query.
+   */
+  private def query(invoke: => AnyRef, executor: Executor, deadline: Option[Deadline])
+  : CompletableFuture[Channel[Stream[_]]] = {
+    val result = new CompletableFuture[Channel[Stream[_]]]()
+    if (deadline.exists(_.isExpired)) {
+      result.completeExceptionally(Interrupted(ErrorMsg.deadline))
+    } else {
+      try {
+        val channel = Channel[Stream[_]](
+          invoke,
+          Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream),
+          executor,
+          deadline
+        )
+        result.whenComplete { (_: Channel[Stream[_]], failure: Throwable) =>
+          if (failure.isInstanceOf[CancellationException])
+            channel.close()
+          ()
+        }
+        executor.execute(() => result.complete(channel))
+      } catch {
+        case e: Throwable => result.completeExceptionally(e)
+      }
+    }
+    result
+  }
+
+  // Arg map with :timeout bounded by the deadline if any
+  private def within(argMap: jMap[_, _], deadline: Option[Deadline]): jMap[_, _] = {
+    deadline.fold[jMap[_, _]](argMap) { d =>
+      val timeout = argMap.get(Kw.timeout) match {
+        case n: Number => n.intValue
+        case _         => 0
+      }
+      val bounded = new java.util.HashMap[Any, Any](argMap)
+      bounded.put(Kw.timeout, d.timeout(timeout))
+      bounded
+    }
   }
 }
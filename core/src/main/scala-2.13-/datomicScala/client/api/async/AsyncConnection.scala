@@ -7,30 +7,52 @@ import datomic.Util._
 import datomicClient._
 import datomicClient.anomaly.CognitectAnomaly
 import datomicScala.client.api.{Datom, Helper}
-import scala.concurrent.ExecutionContext.Implicits.global
-import scala.concurrent.Future
+import scala.concurrent.{ExecutionContext, Future}
 
 
-case class AsyncConnection(datomicConn: AnyRef) {
+case class AsyncConnection(
+  datomicConn: AnyRef,
+  ec: ExecutionContext = ExecutionContext.global
+) {
 
-  lazy private val isDevLocal = db.datomicDb.isInstanceOf[clojure.lang.IPersistentMap]
+  implicit private def executionContext: ExecutionContext = ec
 
-  def db: AsyncDb = AsyncDb(InvokeAsync.db(datomicConn))
+  /** Same connection with futures run on `ec`. */
+  def withExecutionContext(ec: ExecutionContext): AsyncConnection = copy(ec = ec)
 
+  def db: AsyncDb = AsyncDb(InvokeAsync.db(datomicConn), ec = ec)
 
+
+  @deprecated("Blocks until synced. Use syncAsync.", "1.0.4")
   def sync(t: Long): AsyncDb = AsyncDb(
     Channel[AnyRef](
       InvokeAsync.sync(datomicConn, t)
-    ).lazyList.head.toOption.get // Assuming no anomalies
+    ).lazyList.head.toOption.get, // Assuming no anomalies
+    ec = ec
   )
 
+  // Db synced to `t` without blocking
+  def syncAsync(t: Long): Future[Either[CognitectAnomaly, AsyncDb]] =
+    FutureBridge(CoreAsync.takeAsync(InvokeAsync.sync(datomicConn, t))).map(_.map(syncedDb =>
+      AsyncDb(syncedDb, ec = ec)
+    ))
+
+
+  def transact(stmts: jList[_]): Future[Either[CognitectAnomaly, AsyncTxReport]] =
+    txReport(InvokeAsync.transact(datomicConn, stmts))
+
+  // Tx data bound from a template compiled once
+  def transact(template: TxTemplate, values: Any*)
+  : Future[Either[CognitectAnomaly, AsyncTxReport]] = {
+    val txData = template.bind(values: _*)
+    txReport(InvokeAsync.transactTxData(datomicConn, txData))
+  }
 
-  def transact(stmts: jList[_]): Future[Either[CognitectAnomaly, AsyncTxReport]] = Future {
-    Channel[jMap[_, _]](
-      InvokeAsync.transact(datomicConn, stmts)
-    ).lazyList.head match {
+  private def txReport(invoke: => AnyRef)
+  : Future[Either[CognitectAnomaly, AsyncTxReport]] = Future {
+    Channel[jMap[_, _]](invoke).lazyList.head match {
       case Right(txReport) =>
-        Channel[AsyncTxReport](AsyncTxReport(txReport)).lazyList.head
+        Channel[AsyncTxReport](AsyncTxReport(txReport, ec)).lazyList.head
       case Left(anomaly)   => Left(anomaly)
     }
   }
@@ -41,6 +63,9 @@ case class AsyncConnection(datomicConn: AnyRef) {
   def transact(edn: String): Future[Either[CognitectAnomaly, AsyncTxReport]] =
     transact(readAll(new StringReader(edn)).get(0).asInstanceOf[jList[_]])
 
+  // Transactions pipelined with an adaptive bound on those in flight
+  def pipeline(maxInFlight: Int): TxPipeline = new TxPipeline(this, maxInFlight)
+
 
   def txRange(
     timePointStart: Option[Any] = None, // Int | Long | java.util.Date
@@ -48,16 +73,12 @@ case class AsyncConnection(datomicConn: AnyRef) {
     timeout: Int = 0,
     offset: Int = 0,
     limit: Int = 1000
-  ): Future[Either[CognitectAnomaly, Iterable[(Long, Iterable[Datom])]]] = Future {
-    Channel[AnyRef](
-      Invoke.txRange(datomicConn, timePointStart, timePointEnd, timeout, offset, limit)
-    ).lazyList.head match {
-      case Right(rawTxs0) =>
-        Channel[Iterable[(Long, Iterable[Datom])]](
-          Helper.nestedTxsIterable(isDevLocal, rawTxs0)
-        ).lazyList.head
-      case Left(anomaly)  => Left(anomaly)
-    }
+  ): Future[Either[CognitectAnomaly, Iterable[(Long, Iterable[Datom])]]] = {
+    FutureBridge(CoreAsync.takeAllAsync(
+      InvokeAsync.txRange(datomicConn, timePointStart, timePointEnd, timeout, offset, limit)
+    )).map(_.map(rawTxs =>
+      Helper.nestedTxsIterable(false, rawTxs) // Chunks collected in a java List
+    ))
   }
 
   def txRangeArray(
@@ -66,16 +87,12 @@ case class AsyncConnection(datomicConn: AnyRef) {
     timeout: Int = 0,
     offset: Int = 0,
     limit: Int = 1000
-  ): Future[Either[CognitectAnomaly, Array[(Long, Array[Datom])]]] = Future {
-    Channel[AnyRef](
-      Invoke.txRange(datomicConn, timePointStart, timePointEnd, timeout, offset, limit)
-    ).lazyList.head match {
-      case Right(rawTxs0) =>
-        Channel[Array[(Long, Array[Datom])]](
-          Helper.nestedTxsArray(isDevLocal, rawTxs0)
-        ).lazyList.head
-      case Left(anomaly)  => Left(anomaly)
-    }
+  ): Future[Either[CognitectAnomaly, Array[(Long, Array[Datom])]]] = {
+    FutureBridge(CoreAsync.takeAllAsync(
+      InvokeAsync.txRange(datomicConn, timePointStart, timePointEnd, timeout, offset, limit)
+    )).map(_.map(rawTxs =>
+      Helper.nestedTxsArray(false, rawTxs) // Chunks collected in a java List
+    ))
   }
 
 
@@ -87,8 +104,8 @@ case class AsyncConnection(datomicConn: AnyRef) {
           InvokeAsync.`with`(wdb, stmts)
         ).lazyList.head match {
           case Right(txMap) =>
-            val dbAfter = txMap.asInstanceOf[jMap[_, _]].get(read(":db-after"))
-            Right(AsyncDb(dbAfter.asInstanceOf[AnyRef]))
+            val dbAfter = txMap.asInstanceOf[jMap[_, _]].get(Kw.dbAfter)
+            Right(AsyncDb(dbAfter.asInstanceOf[AnyRef], ec = ec))
 
           case Left(anomaly) => Left(anomaly)
         }
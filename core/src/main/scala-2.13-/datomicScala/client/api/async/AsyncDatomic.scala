@@ -2,14 +2,14 @@ package datomicScala.client.api.async
 
 import java.util.stream.{Stream => jStream}
 import java.util.{List => jList, Map => jMap, Collection => jCollection}
-import cats.effect.IO
+import cats.effect.{Async, IO}
 import com.amazonaws.auth.AWSCredentialsProviderChain
 import datomic.Util
 import datomic.Util._
 import datomicClient._
 import datomicClient.anomaly.CognitectAnomaly
-import scala.concurrent.ExecutionContext.Implicits.global
-import scala.concurrent.Future
+import datomicScala.client.api.CloseableIterator
+import scala.concurrent.{ExecutionContext, Future}
 
 object AsyncDatomic extends ClojureBridge {
 
@@ -74,6 +74,45 @@ object AsyncDatomic extends ClojureBridge {
   )
 
 
+  // Clients running their futures and those of derived connections, dbs
+  // and tx reports on `ec` instead of the global ExecutionContext
+
+  def clientCloud(
+    region: String,
+    system: String,
+    endpoint: String,
+    credsProvider: AWSCredentialsProviderChain,
+    proxyPort: Int,
+    ec: ExecutionContext
+  ): AsyncClient =
+    clientCloud(region, system, endpoint, credsProvider, proxyPort).withExecutionContext(ec)
+
+  def clientCloud(
+    region: String,
+    system: String,
+    endpoint: String,
+    credsProfile: String,
+    proxyPort: Int,
+    ec: ExecutionContext
+  ): AsyncClient =
+    clientCloud(region, system, endpoint, credsProfile, proxyPort).withExecutionContext(ec)
+
+  def clientDevLocal(
+    system: String,
+    storageDir: String,
+    ec: ExecutionContext
+  ): AsyncClient = clientDevLocal(system, storageDir).withExecutionContext(ec)
+
+  def clientPeerServer(
+    accessKey: String,
+    secret: String,
+    endpoint: String,
+    validateHostnames: Boolean,
+    ec: ExecutionContext
+  ): AsyncClient =
+    clientPeerServer(accessKey, secret, endpoint, validateHostnames).withExecutionContext(ec)
+
+
   // Chunks from clojure Channels are returned asynchronously as Futures
   // of either a CognitectAnomaly or a java Stream of lists of data.
 
@@ -83,8 +122,9 @@ object AsyncDatomic extends ClojureBridge {
   //   :limit   (optional)
   //   :timeout (optional)
   //   :chunk   (optional)
-  def q(argMap: jMap[_, _])
-  : Future[Stream[Either[CognitectAnomaly, jStream[_]]]] = Future {
+  def q(argMap: jMap[_, _])(
+    implicit ec: ExecutionContext = ExecutionContext.global
+  ): Future[Stream[Either[CognitectAnomaly, jStream[_]]]] = Future {
     Channel[jStream[_]](
       InvokeAsync.q(argMap),
       Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
@@ -96,9 +136,9 @@ object AsyncDatomic extends ClojureBridge {
   : Future[Stream[Either[CognitectAnomaly, jStream[_]]]] = {
     val args1 = args.toSeq.asInstanceOf[Seq[Object]]
     q(Util.map(
-      read(":query"), edn(query),
-      read(":args"), list(db.datomicDb +: args1: _*)
-    ))
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args1: _*)
+    ))(db.ec)
   }
 
   // Query as String
@@ -106,27 +146,51 @@ object AsyncDatomic extends ClojureBridge {
   : Future[Stream[Either[CognitectAnomaly, jStream[_]]]] = {
     val args1 = args.toSeq.asInstanceOf[Seq[Object]]
     q(Util.map(
-      read(":query"), read(query),
-      read(":args"), list(db.datomicDb +: args1: _*)
-    ))
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args1: _*)
+    ))(db.ec)
+  }
+
+  // Single-pass alternative to q that doesn't memoize chunks. The first chunk
+  // is taken asynchronously. Close the iterator to release the channel early.
+  def qIterator(argMap: jMap[_, _])(
+    implicit ec: ExecutionContext = ExecutionContext.global
+  ): Future[CloseableIterator[Either[CognitectAnomaly, jStream[_]]]] = Future {
+    val it = Channel[jStream[_]](
+      InvokeAsync.q(argMap),
+      Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
+    ).iterator
+    it.hasNext
+    it
   }
 
   // fs2 Stream implementation example
   // This allows the first the first chunk to be lazy
   // Usage is flexible but verbose
-  def qStream(argMap: jMap[_, _])
-  : fs2.Stream[IO, Either[CognitectAnomaly, jStream[_]]] = {
+  def qStream(argMap: jMap[_, _])(
+    implicit ec: ExecutionContext = ExecutionContext.global
+  ): fs2.Stream[IO, Either[CognitectAnomaly, jStream[_]]] = {
     Channel[jStream[_]](
       InvokeAsync.q(argMap),
       Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
     ).myTerminatedStream
   }
 
+  // Rows of all chunks as an fs2 Stream, see ChannelStream
+  def qSource[F[_] : Async](
+    argMap: jMap[_, _],
+    prefetch: Int = 1
+  ): fs2.Stream[F, jList[AnyRef]] =
+    ChannelStream[F, jList[AnyRef]](
+      InvokeAsync.q(argMap), _.asInstanceOf[jList[AnyRef]], prefetch
+    )
+
 
   // Query as data structure or String + optional :offset, :limit, :timeout params
   // (see tests)
-  def qseq(argMap: jMap[_, _])
-  : Future[Stream[Either[CognitectAnomaly, jStream[_]]]] = Future {
+  def qseq(argMap: jMap[_, _])(
+    implicit ec: ExecutionContext = ExecutionContext.global
+  ): Future[Stream[Either[CognitectAnomaly, jStream[_]]]] = Future {
     Channel[jStream[_]](
       InvokeAsync.qseq(argMap),
       Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
@@ -138,9 +202,9 @@ object AsyncDatomic extends ClojureBridge {
   : Future[Stream[Either[CognitectAnomaly, jStream[_]]]] = {
     val args1 = args.toSeq.asInstanceOf[Seq[Object]]
     qseq(Util.map(
-      read(":query"), edn(query),
-      read(":args"), list(db.datomicDb +: args1: _*)
-    ))
+      Kw.query, edn(query),
+      Kw.args, list(db.datomicDb +: args1: _*)
+    ))(db.ec)
   }
 
   // Query as String
@@ -148,8 +212,28 @@ object AsyncDatomic extends ClojureBridge {
   : Future[Stream[Either[CognitectAnomaly, jStream[_]]]] = {
     val args1 = args.toSeq.asInstanceOf[Seq[Object]]
     qseq(Util.map(
-      read(":query"), read(query),
-      read(":args"), list(db.datomicDb +: args1: _*)
-    ))
+      Kw.query, read(query),
+      Kw.args, list(db.datomicDb +: args1: _*)
+    ))(db.ec)
+  }
+
+  // Results of all chunks as an fs2 Stream, see ChannelStream
+  def qseqSource[F[_] : Async](
+    argMap: jMap[_, _],
+    prefetch: Int = 1
+  ): fs2.Stream[F, Any] =
+    ChannelStream[F, Any](InvokeAsync.qseq(argMap), identity, prefetch)
+
+  // Single-pass alternative to qseq that doesn't memoize chunks. The first
+  // chunk is taken asynchronously. Close the iterator to release the channel early.
+  def qseqIterator(argMap: jMap[_, _])(
+    implicit ec: ExecutionContext = ExecutionContext.global
+  ): Future[CloseableIterator[Either[CognitectAnomaly, jStream[_]]]] = Future {
+    val it = Channel[jStream[_]](
+      InvokeAsync.qseq(argMap),
+      Some((res: AnyRef) => res.asInstanceOf[jCollection[_]].stream)
+    ).iterator
+    it.hasNext
+    it
   }
 }
@@ -2,20 +2,27 @@ package datomicScala.client.api.async
 
 import java.io.{Reader, StringReader}
 import java.util.stream.{Stream => jStream}
-import java.util.{Collections, Date, List => jList, Map => jMap, Collection => jCollection}
+import java.util.{Collections, Date, Iterator => jIterator, List => jList, Map => jMap, Collection => jCollection}
+import cats.effect.Async
+import clojure.lang.ILookup
 import datomic.Util.readAll
 import datomicClient._
 import datomicClient.anomaly.CognitectAnomaly
-import datomicScala.client.api.{Datom, DbStats, Helper}
-import scala.concurrent.ExecutionContext.Implicits.global
-import scala.concurrent.Future
+import datomicScala.client.api.{Datom, DatomBatch, DbStats, Helper}
+import scala.concurrent.{ExecutionContext, Future}
 
 
 case class AsyncDb(
   datomicDb: AnyRef,
-  sinceTimePoint: Option[(Long, Long, Date)] = None
+  sinceTimePoint: Option[(Long, Long, Date)] = None,
+  ec: ExecutionContext = ExecutionContext.global
 ) extends DbLookup(datomicDb, sinceTimePoint) {
 
+  implicit private def executionContext: ExecutionContext = ec
+
+  /** Same database value with futures run on `ec`. */
+  def withExecutionContext(ec: ExecutionContext): AsyncDb = copy(ec = ec)
+
   def dbStats: Future[Either[CognitectAnomaly, DbStats]] = Future {
     Channel[jMap[_, _]](
       InvokeAsync.dbStats(datomicDb)
@@ -29,34 +36,51 @@ case class AsyncDb(
 
   // Time filters --------------------------------------
 
-  def asOf(t: Long): AsyncDb = AsyncDb(InvokeAsync.asOf(datomicDb, t))
+  @deprecated("Blocks while finding the tx of an as-of Date. Use asOfTAsync.", "1.0.4")
+  override def asOfT: Long = super.asOfT
+
+  // As-of t with the tx of an as-of Date found without blocking
+  def asOfTAsync: Future[Either[CognitectAnomaly, Long]] =
+    FutureBridge(asOfTFuture).map(_.map(_.longValue))
+
+  @deprecated("Blocks while pulling the tx instant. Use asOfTxInstAsync.", "1.0.4")
+  override def asOfTxInst: Date = super.asOfTxInst
+
+  // Tx instant of as-of-db pulled without blocking
+  def asOfTxInstAsync: Future[Either[CognitectAnomaly, Date]] =
+    FutureBridge(asOfTxInstFuture)
 
-  def asOf(d: Date): AsyncDb = AsyncDb(InvokeAsync.asOf(datomicDb, d))
+  def asOf(t: Long): AsyncDb = AsyncDb(InvokeAsync.asOf(datomicDb, t), ec = ec)
 
+  def asOf(d: Date): AsyncDb = AsyncDb(InvokeAsync.asOf(datomicDb, d), ec = ec)
 
+
+  @deprecated("Blocks while resolving the time point. Use sinceAsync.", "1.0.4")
   def since(tOrTx: Long): AsyncDb =
-    AsyncDb(InvokeAsync.since(datomicDb, tOrTx), extractSinceTimePoint(tOrTx))
+    AsyncDb(InvokeAsync.since(datomicDb, tOrTx), extractSinceTimePoint(tOrTx), ec)
 
+  @deprecated("Blocks while resolving the time point. Use sinceAsync.", "1.0.4")
   def since(d: Date): AsyncDb =
-    AsyncDb(InvokeAsync.since(datomicDb, d), extractSinceTimePoint(d))
+    AsyncDb(InvokeAsync.since(datomicDb, d), extractSinceTimePoint(d), ec)
+
+  // Time point of since-db resolved without blocking
+  def sinceAsync(tOrTx: Long): Future[Either[CognitectAnomaly, AsyncDb]] =
+    FutureBridge(extractSinceTimePointAsync(tOrTx)).map(_.map(tp =>
+      AsyncDb(InvokeAsync.since(datomicDb, tOrTx), tp, ec)
+    ))
+
+  def sinceAsync(d: Date): Future[Either[CognitectAnomaly, AsyncDb]] =
+    FutureBridge(extractSinceTimePointAsync(d)).map(_.map(tp =>
+      AsyncDb(InvokeAsync.since(datomicDb, d), tp, ec)
+    ))
 
 
   // Presuming a `withDb` is passed.
   def `with`(withDb: AnyRef, stmts: jList[_])
   : Future[Either[CognitectAnomaly, AsyncTxReport]] = {
-    Future(
-      Channel[AnyRef](
-        InvokeAsync.`with`(withDb, stmts)
-      ).lazyList.head match {
-        case Right(withDb) =>
-          Channel[AsyncTxReport](
-            AsyncTxReport(
-              withDb.asInstanceOf[jMap[_, _]]
-            )
-          ).lazyList.head
-        case Left(anomaly) => Left(anomaly)
-      }
-    )
+    FutureBridge(CoreAsync.takeAsync(InvokeAsync.`with`(withDb, stmts))).map(_.map(txReport =>
+      AsyncTxReport(txReport.asInstanceOf[jMap[_, _]], ec)
+    ))
   }
 
   def `with`(withDb: AnyRef, stmtsReader: Reader)
@@ -73,7 +97,7 @@ case class AsyncDb(
   : Future[Either[CognitectAnomaly, AsyncTxReport]] = {
     withDbFut.flatMap {
       case Right(withDb) => `with`(withDb, stmts)
-      case Left(anomaly) => Future(Left(anomaly))
+      case Left(anomaly) => Future.successful(Left(anomaly))
     }
   }
 
@@ -125,7 +149,7 @@ case class AsyncDb(
 
 
   def history: AsyncDb = AsyncDb(
-    InvokeAsync.history(datomicDb)
+    InvokeAsync.history(datomicDb), ec = ec
   )
 
 
@@ -159,6 +183,58 @@ case class AsyncDb(
     }
   }
 
+  // Datoms fetched lazily in pages with memory bounded by the page size.
+  // Unlike indexRangePaged, pages are the chunks of one server-side cursor,
+  // not requests resuming from a key, since datoms can't seek to a key.
+  // The first chunk is taken without blocking, the following are waited for
+  // by the thread consuming the stream.
+  def datomsPaged(
+    index: String,
+    components: jList[_],
+    timeout: Int = 0,
+    pageSize: Int = 1000
+  ): Future[Either[CognitectAnomaly, jStream[Datom]]] = {
+    FutureBridge(
+      DatomPages.datomsAsync(InvokeAsync, datomicDb, index, components, timeout, pageSize)
+    ).map(_.map(pages => Helper.streamOfDatomPages(pages)))
+  }
+
+
+  // All datoms as an fs2 Stream taken in chunks, see ChannelStream
+  def datomsSource[F[_] : Async](
+    index: String,
+    components: jList[_],
+    timeout: Int = 0,
+    chunk: Int = 1000,
+    prefetch: Int = 1
+  ): fs2.Stream[F, Datom] = ChannelStream[F, Datom](
+    InvokeAsync.datoms(datomicDb, index, components, timeout, 0, -1, chunk),
+    d => Helper.getDatom(d.asInstanceOf[ILookup]),
+    prefetch
+  )
+
+
+  // Page of datoms decoded into columns
+  def datomsBatch(
+    index: String,
+    components: jList[_],
+    timeout: Int = 0,
+    offset: Int = 0,
+    limit: Int = 1000
+  ): Future[Either[CognitectAnomaly, DatomBatch]] = Future {
+    Channel[Any](
+      InvokeAsync.datoms(datomicDb, index, components, timeout, offset, limit)
+    ).lazyList.headOption.fold(
+      Channel[DatomBatch](Helper.datomBatch(null)).lazyList.head
+    ) {
+      case Right(datoms) => Channel[DatomBatch](
+        Helper.datomBatch(datoms)
+      ).lazyList.head
+
+      case Left(anomaly) => Left(anomaly)
+    }
+  }
+
 
   def indexRange(
     attrId: String,
@@ -183,6 +259,61 @@ case class AsyncDb(
     }
   }
 
+  // Datoms fetched lazily in pages, each resuming from the last value.
+  // The first chunk is taken without blocking, the following are waited for
+  // by the thread consuming the stream.
+  def indexRangePaged(
+    attrId: String,
+    start: Option[Any] = None,
+    end: Option[Any] = None,
+    timeout: Int = 0,
+    pageSize: Int = 1000
+  ): Future[Either[CognitectAnomaly, jStream[Datom]]] = {
+    FutureBridge(
+      DatomPages.indexRangeAsync(InvokeAsync, datomicDb, attrId, start, end, timeout, pageSize)
+    ).map(_.map(pages => Helper.streamOfDatomPages(pages)))
+  }
+
+
+  // All datoms of the range as an fs2 Stream taken in chunks, see ChannelStream
+  def indexRangeSource[F[_] : Async](
+    attrId: String,
+    start: Option[Any] = None,
+    end: Option[Any] = None,
+    timeout: Int = 0,
+    chunk: Int = 1000,
+    prefetch: Int = 1
+  ): fs2.Stream[F, Datom] = ChannelStream[F, Datom](
+    InvokeAsync.indexRange(datomicDb, attrId, start, end, timeout, 0, -1, chunk),
+    d => Helper.getDatom(d.asInstanceOf[ILookup]),
+    prefetch
+  )
+
+
+  // Page of datoms decoded into columns
+  def indexRangeBatch(
+    attrId: String,
+    start: Option[Any] = None,
+    end: Option[Any] = None,
+    timeout: Int = 0,
+    offset: Int = 0,
+    limit: Int = 1000
+  ): Future[Either[CognitectAnomaly, DatomBatch]] = Future {
+    Channel[Any](
+      InvokeAsync.indexRange(
+        datomicDb, attrId, start, end, timeout, offset, limit
+      )
+    ).lazyList.headOption.fold(
+      Channel[DatomBatch](Helper.datomBatch(null)).lazyList.head
+    ) {
+      case Right(datoms) => Channel[DatomBatch](
+        Helper.datomBatch(datoms)
+      ).lazyList.head
+
+      case Left(anomaly) => Left(anomaly)
+    }
+  }
+
 
   // Pull --------------------------------------
 
@@ -229,4 +360,19 @@ case class AsyncDb(
       }
     )
   }
-}
\ No newline at end of file
+
+  // All pulled entities as an fs2 Stream taken in chunks, see ChannelStream
+  def indexPullSource[F[_] : Async](
+    index: String,
+    selector: String,
+    start: String,
+    reverse: Boolean = false,
+    timeout: Int = 0,
+    chunk: Int = 1000,
+    prefetch: Int = 1
+  ): fs2.Stream[F, Any] = ChannelStream[F, Any](
+    InvokeAsync.indexPull(datomicDb, index, selector, start, reverse, timeout, 0, -1, chunk),
+    identity,
+    prefetch
+  )
+}
@@ -1,12 +1,11 @@
 package datomicScala.client.api.async
 
-import cats.effect.IO
-import clojure.lang.PersistentArrayMap
+import cats.effect.{Async, IO}
+import clojure.lang.{IType, PersistentArrayMap}
 import datomic.Util._
 import datomicClient._
 import datomicClient.anomaly.{AnomalyWrapper, CognitectAnomaly}
-import scala.concurrent.ExecutionContext.Implicits.global
-import scala.concurrent.Future
+import datomicScala.client.api.CloseableIterator
 
 
 case class Channel[T](
@@ -21,7 +20,7 @@ case class Channel[T](
       case channel: clojure.lang.IType =>
         // Initial invocation (head of LazyList) is not lazy in this implementation
         // Use qStream for a fully lazy fs2 Stream implementation (see below)
-        coreAsyncFn("<!!").invoke(channel) match {
+        CoreAsync.<!!.invoke(channel) match {
           // Empty result
           case null =>
             Stream.empty
@@ -29,7 +28,7 @@ case class Channel[T](
 
           // Anomaly
           case anomalyMap: PersistentArrayMap
-            if anomalyMap.containsKey(read(":cognitect.anomalies/category")) =>
+            if anomalyMap.containsKey(Kw.anomalyCategory) =>
             Left(anomaly(anomalyMap)) #:: Stream.empty
 
           // Chunks with type transformation
@@ -48,41 +47,71 @@ case class Channel[T](
   }
 
 
-  // Alternative fs2 Stream implementation
-  // This allows the first chunk to be lazy too.
-  // Usage is flexible but verbose
-
-  private def getChunk: Future[Option[Either[CognitectAnomaly, T]]] = {
-    Future {
-      channelOrInternal match {
-        case channel: clojure.lang.IType =>
-          coreAsyncFn("<!!").invoke(channel) match {
-            // Empty result
-            case null => None
-
-            // Anomaly
-            case anomalyMap: PersistentArrayMap
-              if anomalyMap.containsKey(read(":cognitect.anomalies/category")) =>
-              Some(Left(anomaly(anomalyMap)))
+  // Single-pass alternative to lazyList that doesn't memoize chunks, so only
+  // the current chunk is referenced. The first chunk is taken on `hasNext`.
+  // Closing before the end closes the channel.
+  def iterator: CloseableIterator[Either[CognitectAnomaly, T]] =
+    new CloseableIterator[Either[CognitectAnomaly, T]] {
+      private var nextChunk = Option.empty[Either[CognitectAnomaly, T]]
+      private var done      = false
+
+      override def hasNext: Boolean = {
+        if (nextChunk.isEmpty && !done) {
+          channelOrInternal match {
+            case channel: IType =>
+              CoreAsync.<!!.invoke(channel) match {
+                case null => done = true
+
+                case anomalyMap: PersistentArrayMap
+                  if anomalyMap.containsKey(Kw.anomalyCategory) =>
+                  done = true
+                  nextChunk = Some(Left(anomaly(anomalyMap)))
+
+                case chunk =>
+                  nextChunk = Some(Right(transform.fold(chunk.asInstanceOf[T])(_(chunk))))
+              }
+
+            // Internal types like TxReport etc.
+            case internal =>
+              done = true
+              nextChunk = Some(Right(internal.asInstanceOf[T]))
+          }
+        }
+        nextChunk.nonEmpty
+      }
 
-            // Chunks with type transformation
-            case chunk if transform.nonEmpty =>
-              Some(Right(transform.get(chunk)))
+      override def next(): Either[CognitectAnomaly, T] = {
+        if (!hasNext)
+          throw new NoSuchElementException()
+        val chunk = nextChunk.get
+        nextChunk = None
+        chunk
+      }
 
-            // Chunks casted
-            case chunk =>
-              Some(Right(chunk.asInstanceOf[T]))
+      override def close(): Unit = {
+        if (!done) {
+          done = true
+          channelOrInternal match {
+            case channel: IType => CoreAsync.close.invoke(channel)
+            case _              => ()
           }
-
-        // Internal types like TxReport etc.
-        case internal =>
-          Some(Right(internal.asInstanceOf[T]))
+        }
+        nextChunk = None
       }
     }
-  }
 
-  def myTerminatedStream: fs2.Stream[IO, Either[CognitectAnomaly, T]] = {
-    val typedChunks = IO.fromFuture(IO(getChunk))
-    fs2.Stream.eval(typedChunks).repeat.unNoneTerminate
-  }
+
+  // fs2 Stream implementations
+  // These allow the first chunk to be lazy too and take chunks without
+  // blocking a thread.
+
+  // Elements of all chunks, see ChannelStream
+  def stream[F[_] : Async, E](
+    decode: AnyRef => E,
+    prefetch: Int = 1
+  ): fs2.Stream[F, E] =
+    ChannelStream[F, E](channelOrInternal, decode, prefetch)
+
+  def myTerminatedStream: fs2.Stream[IO, Either[CognitectAnomaly, T]] =
+    ChannelStream.chunks[IO, T](channelOrInternal, transform)
 }
@@ -39,8 +39,8 @@ case class Client(
 
   def administerSystem(dbName: String): jMap[_, _] = administerSystem(
     Util.map(
-      read(":db-name"), read(dbName),
-      read(":action"), read(":upgrade-schema"),
+      Kw.dbName, read(dbName),
+      Kw.action, Kw.upgradeSchema,
     )
   )
 
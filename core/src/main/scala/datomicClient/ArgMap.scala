@@ -0,0 +1,84 @@
+package datomicClient
+
+import java.util.{Arrays, Date}
+import clojure.lang.{Keyword, PersistentArrayMap}
+import datomic.Util.read
+
+
+/** Builder of argument maps for the datomic.client.api(.async) functions.
+ *
+ * Keys are pre-interned keywords and values are put as typed objects so that
+ * no edn text has to be formatted and parsed again for each invocation.
+ *
+ * @param capacity max number of key/value pairs to be added
+ */
+final class ArgMap(capacity: Int) {
+
+  private val kvs = new Array[AnyRef](capacity * 2)
+  private var n   = 0
+
+  def put(key: Keyword, value: AnyRef): ArgMap = {
+    kvs(n) = key
+    kvs(n + 1) = value
+    n += 2
+    this
+  }
+
+  def putOpt(key: Keyword, opt: Option[Any]): ArgMap = opt match {
+    case None    => this
+    case Some(v) => put(key, ArgMap.value(v))
+  }
+
+  private def positive(key: Keyword, number: Int, default: Int = 0): ArgMap = number match {
+    case `default`  => this
+    case i if i < 1 => throw new IllegalArgumentException(ErrorMsg.zeroNeg)
+    case i          => put(key, Long.box(i.toLong))
+  }
+
+  def timeout(timeout: Int): ArgMap = positive(Kw.timeout, timeout)
+
+  def offset(offset: Int): ArgMap = positive(Kw.offset, offset)
+
+  def chunk(chunk: Int): ArgMap = positive(Kw.chunk, chunk)
+
+  def limit(limit: Int): ArgMap = limit match {
+    case -1         => put(Kw.limit, ArgMap.noLimit)
+    case i if i < 1 => throw new IllegalArgumentException(ErrorMsg.limit)
+    case i          => put(Kw.limit, Long.box(i.toLong))
+  }
+
+  def timePoint(key: Keyword, opt: Option[Any]): ArgMap = {
+    def validNumber(t: Long): AnyRef = {
+      if (t < 1)
+        throw new RuntimeException(s"Time point has to be > 0 (was $t)")
+      Long.box(t)
+    }
+    opt.fold(this) {
+      case t: Int  => put(key, validNumber(t))
+      case t: Long => put(key, validNumber(t))
+      case d: Date => put(key, d)
+      case x       => throw new RuntimeException(
+        s"Unexpected time point `$x` of type ${x.getClass}."
+      )
+    }
+  }
+
+  def build: PersistentArrayMap =
+    new PersistentArrayMap(if (n == kvs.length) kvs else Arrays.copyOf(kvs, n))
+}
+
+
+object ArgMap {
+
+  def apply(capacity: Int): ArgMap = new ArgMap(capacity)
+
+  private val noLimit: AnyRef = Long.box(-1L)
+
+
+  /** Keyword from ":ns/name" String, or edn value of other Strings (like "[*]" or "42"). */
+  def kw(s: String): AnyRef =
+    if (s.startsWith(":")) Keyword.intern(s.substring(1)) else read(s)
+
+  /** Value as it would have been read back from its edn representation. */
+  def value(v: Any): AnyRef = CljData.value(v)
+}
@@ -0,0 +1,276 @@
+package datomicClient
+
+import java.io.Reader
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path}
+import java.util.concurrent.Executor
+import java.util.function.Consumer
+import java.util.{ArrayList => jArrayList, Collection => jCollection, Collections, HashMap => jHashMap, HashSet => jHashSet, List => jList, Map => jMap}
+import datomic.Util
+
+
+/** Import of EDN tx data too large to be read into memory at once.
+ *
+ * Statements are read one at a time (see [[EdnStatements]]) and grouped into
+ * transactions of about `maxDatoms` datoms or `maxChars` characters of EDN
+ * text, whichever is reached first. While a transaction commits, up to
+ * `readAhead` following ones are read and grouped on `executor`.
+ *
+ * Transactions are committed one after the other in file order: a
+ * transaction is only submitted once the previous one has returned its temp
+ * ids, since it may refer to them. Reading and grouping run ahead of the
+ * commits, submissions are not pipelined. String temp ids resolved by a
+ * committed transaction are replaced with their entity ids in the following
+ * transactions, both as entity ids and as values of reference attributes, so
+ * that statements can refer to entities created by earlier transactions of
+ * the import. Entity ids are replaced in entity maps and in
+ * `:db/add`/`:db/retract` statements only, arguments of tx function calls are
+ * left as is.
+ *
+ * References only resolve backwards. A temp id used as value of a reference
+ * attribute in a transaction before the one that asserts attributes of the
+ * entity is not yet resolved, and that transaction fails as the temp id is
+ * only used as a value. Such files need the referenced entities to come
+ * first, or the statements to fit into one transaction.
+ *
+ * Any later statement may refer to any earlier temp id, so the resolved temp
+ * ids are kept for the whole import and memory grows with the number of
+ * distinct temp ids in the file. Imports with many millions of temp ids can
+ * be split into files whose statements refer to earlier entities with lookup
+ * refs instead.
+ *
+ * @param datomicConn connection to transact with
+ * @param maxDatoms   max number of datoms (estimated) per transaction
+ * @param maxChars    max number of characters of EDN text per transaction
+ * @param onProgress  called after each committed transaction
+ * @param executor    reads and groups the statements ahead
+ * @param readAhead   max number of transactions read ahead
+ */
+final class BulkImport(
+  datomicConn: AnyRef,
+  maxDatoms: Int,
+  maxChars: Long,
+  onProgress: Consumer[BulkImport.Progress],
+  executor: Executor = Prefetcher.defaultExecutor,
+  readAhead: Int = 2
+) {
+
+  import BulkImport._
+
+  if (maxDatoms < 1 || maxChars < 1 || readAhead < 1)
+    throw new IllegalArgumentException(ErrorMsg.zeroNeg)
+
+  def run(path: Path): Progress = {
+    val reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)
+    try {
+      run(reader)
+    } finally {
+      reader.close()
+    }
+  }
+
+  /** Imports all statements of `reader` that is not closed. */
+  def run(reader: Reader): Progress = {
+    val started  = System.nanoTime()
+    val stmts    = new EdnStatements(reader)
+    val batches  = new Prefetcher[Batch](() => nextBatch(stmts), executor, readAhead, readAhead)
+    val resolved = new jHashMap[String, AnyRef]()
+    var refAttrs = refAttributes()
+    var progress = Progress(0, 0, 0, 0, 0)
+
+    try {
+      while (batches.hasNext) {
+        val batch    = batches.next()
+        val txData   =
+          if (resolved.isEmpty) batch.stmts else resolveAll(batch.stmts, refAttrs, resolved)
+        val txReport = Invoke.transact(datomicConn, txData).asInstanceOf[jMap[_, _]]
+
+        txReport.get(Kw.tempids) match {
+          case tempIds: jMap[_, _] =>
+            val it = tempIds.entrySet.iterator
+            while (it.hasNext) {
+              val entry = it.next()
+              resolved.put(entry.getKey.toString, entry.getValue.asInstanceOf[AnyRef])
+            }
+          case _                   =>
+        }
+        if (batch.hasSchema)
+          refAttrs = refAttributes()
+
+        progress = Progress(
+          progress.statements + batch.stmts.size,
+          progress.datoms + size(txReport.get(Kw.txData)),
+          progress.transactions + 1,
+          batch.position,
+          System.nanoTime() - started
+        )
+        if (onProgress != null)
+          onProgress.accept(progress)
+      }
+    } finally {
+      batches.close()
+    }
+    progress
+  }
+
+
+  // Single batch as page of the prefetcher or null when all are read
+  private def nextBatch(stmts: EdnStatements): jCollection[_] = {
+    if (!stmts.hasNext) {
+      null
+    } else {
+      val start     = stmts.position
+      val batch     = new jArrayList[AnyRef]()
+      var datoms    = 0
+      var hasSchema = false
+      while (stmts.hasNext && datoms < maxDatoms && stmts.position - start < maxChars) {
+        val stmt = stmts.next()
+        batch.add(stmt)
+        datoms += estimatedDatoms(stmt)
+        hasSchema ||= (stmt match {
+          case entity: jMap[_, _] => entity.containsKey(Kw.valueType)
+          case _                  => false
+        })
+      }
+      Collections.singletonList(Batch(batch, hasSchema, stmts.position))
+    }
+  }
+
+  private def refAttributes(): jHashSet[AnyRef] = {
+    val refAttrs = new jHashSet[AnyRef]()
+    val rows     = Invoke.q(Util.map(
+      Kw.query, Util.read(refAttrsQuery),
+      Kw.args, Util.list(Invoke.db(datomicConn))
+    )).asInstanceOf[jCollection[jList[AnyRef]]]
+    rows.forEach(row => refAttrs.add(row.get(0)))
+    refAttrs
+  }
+}
+
+
+object BulkImport {
+
+  /** Counts of an import so far.
+   *
+   * @param statements   statements transacted
+   * @param datoms       datoms asserted or retracted including tx datoms
+   * @param transactions transactions committed
+   * @param chars        characters of EDN text read
+   * @param elapsedNanos time since the import started
+   */
+  case class Progress(
+    statements: Long,
+    datoms: Long,
+    transactions: Long,
+    chars: Long,
+    elapsedNanos: Long
+  ) {
+
+    /** Datoms transacted per second. */
+    def datomsPerSecond: Double =
+      if (elapsedNanos <= 0) 0.0 else datoms * 1e9 / elapsedNanos
+
+    /** Characters of EDN text imported per second. */
+    def charsPerSecond: Double =
+      if (elapsedNanos <= 0) 0.0 else chars * 1e9 / elapsedNanos
+  }
+
+
+  private val refAttrsQuery =
+    "[:find ?ident :where [?a :db/valueType :db.type/ref] [?a :db/ident ?ident]]"
+
+  private case class Batch(stmts: jList[AnyRef], hasSchema: Boolean, position: Long)
+
+  private def size(data: Any): Int = data match {
+    case coll: jCollection[_] => coll.size
+    case _                    => 0
+  }
+
+  // One datom per attribute value of entity maps, nested maps included
+  private def estimatedDatoms(stmt: Any): Int = stmt match {
+    case entity: jMap[_, _] =>
+      var datoms = 0
+      val it     = entity.entrySet.iterator
+      while (it.hasNext) {
+        val entry = it.next()
+        if (entry.getKey != Kw.dbId) {
+          datoms += (entry.getValue match {
+            case nested: jMap[_, _]   => 1 + estimatedDatoms(nested)
+            case coll: jCollection[_] => math.max(1, coll.size)
+            case _                    => 1
+          })
+        }
+      }
+      datoms
+
+    case _ => 1
+  }
+
+
+  private def resolveAll(
+    stmts: jList[AnyRef],
+    refAttrs: jHashSet[AnyRef],
+    resolved: jMap[String, AnyRef]
+  ): jList[AnyRef] = {
+    val txData = new jArrayList[AnyRef](stmts.size)
+    stmts.forEach(stmt => txData.add(resolve(stmt, refAttrs, resolved)))
+    txData
+  }
+
+  private def resolve(
+    stmt: AnyRef,
+    refAttrs: jHashSet[AnyRef],
+    resolved: jMap[String, AnyRef]
+  ): AnyRef = stmt match {
+    case entity: jMap[_, _] =>
+      val copy = new jHashMap[AnyRef, AnyRef](entity.size)
+      val it   = entity.entrySet.iterator
+      while (it.hasNext) {
+        val entry = it.next()
+        val attr  = entry.getKey.asInstanceOf[AnyRef]
+        val value = entry.getValue.asInstanceOf[AnyRef]
+        copy.put(attr,
+          if (attr == Kw.dbId) id(value, resolved)
+          else if (refAttrs.contains(attr)) ref(value, refAttrs, resolved)
+          else value
+        )
+      }
+      copy
+
+    // Tx function calls like `[:db/retractEntity "lookup"]` are left as is
+    case list: jList[_] if list.size > 1 && isDatomOp(list.get(0)) =>
+      val copy = new jArrayList[AnyRef](list.asInstanceOf[jList[AnyRef]])
+      copy.set(1, id(copy.get(1), resolved))
+      if (copy.size > 3 && refAttrs.contains(copy.get(2)))
+        copy.set(3, ref(copy.get(3), refAttrs, resolved))
+      copy
+
+    case other => other
+  }
+
+  private def isDatomOp(op: Any): Boolean = op == Kw.dbAdd || op == Kw.dbRetract
+
+  // Only Strings issued as temp ids by earlier transactions are replaced
+  private def id(value: AnyRef, resolved: jMap[String, AnyRef]): AnyRef = value match {
+    case tempId: String => resolved.getOrDefault(tempId, tempId)
+    case other          => other
+  }
+
+  // Value of a reference attribute
+  private def ref(
+    value: AnyRef,
+    refAttrs: jHashSet[AnyRef],
+    resolved: jMap[String, AnyRef]
+  ): AnyRef = value match {
+    case tempId: String     => resolved.getOrDefault(tempId, tempId)
+    case nested: jMap[_, _] => resolve(nested, refAttrs, resolved)
+
+    // Cardinality many
+    case coll: jCollection[_] =>
+      val copy = new jArrayList[AnyRef](coll.size)
+      coll.forEach(v => copy.add(ref(v.asInstanceOf[AnyRef], refAttrs, resolved)))
+      copy
+
+    case other => other
+  }
+}
@@ -0,0 +1,165 @@
+package datomicClient
+
+import java.util.concurrent.{CancellationException, CompletableFuture}
+import java.util.{ArrayList => jArrayList, Collection => jCollection, List => jList}
+import clojure.java.api.Clojure
+import clojure.lang.{AFn, IFn, IType, PersistentArrayMap}
+import datomicClient.anomaly.{AnomalyWrapper, Interrupted}
+
+
+/** Functions of datomic.client.api or datomic.client.api.async resolved once.
+ *
+ * Each var is looked up a single time when the object is created so that
+ * invocations don't go through `Clojure.var` and a namespace lookup.
+ */
+final class ClientApi private(ns: String) {
+
+  private def fn(name: String): IFn = Clojure.`var`(ns, name)
+
+  val administerSystem: IFn = fn("administer-system")
+  val asOf            : IFn = fn("as-of")
+  val client          : IFn = fn("client")
+  val connect         : IFn = fn("connect")
+  val createDatabase  : IFn = fn("create-database")
+  val datoms          : IFn = fn("datoms")
+  val db              : IFn = fn("db")
+  val dbStats         : IFn = fn("db-stats")
+  val deleteDatabase  : IFn = fn("delete-database")
+  val history         : IFn = fn("history")
+  val indexPull       : IFn = fn("index-pull")
+  val indexRange      : IFn = fn("index-range")
+  val listDatabases   : IFn = fn("list-databases")
+  val pull            : IFn = fn("pull")
+  val q               : IFn = fn("q")
+  val qseq            : IFn = fn("qseq")
+  val since           : IFn = fn("since")
+  val sync            : IFn = fn("sync")
+  val transact        : IFn = fn("transact")
+  val txRange         : IFn = fn("tx-range")
+  val `with`          : IFn = fn("with")
+  val withDb          : IFn = fn("with-db")
+}
+
+object ClientApi {
+  val sync : ClientApi = new ClientApi("datomic.client.api")
+  val async: ClientApi = new ClientApi("datomic.client.api.async")
+}
+
+
+/** Functions of clojure.core.async resolved once. */
+object CoreAsync extends AnomalyWrapper {
+
+  private def fn(name: String): IFn = Clojure.`var`("clojure.core.async", name)
+
+  val <!!   : IFn = fn("<!!")
+  val take  : IFn = fn("take!")
+  val close : IFn = fn("close!")
+
+  /** Value taken by a `take!` callback without blocking a thread.
+   *
+   * A value that is not a channel completes the future directly. Anomalies
+   * and exceptions thrown by `channelOrValue` fail the future.
+   */
+  def takeAsync(channelOrValue: => AnyRef): CompletableFuture[AnyRef] = {
+    val future = new CompletableFuture[AnyRef]()
+    try {
+      channelOrValue match {
+        case channel: IType =>
+          take.invoke(channel, new AFn {
+            override def invoke(value: AnyRef): AnyRef = {
+              value match {
+                case anomalyMap: PersistentArrayMap
+                  if anomalyMap.containsKey(Kw.anomalyCategory) =>
+                  future.completeExceptionally(anomaly(anomalyMap))
+
+                case v => future.complete(v)
+              }
+              null
+            }
+          })
+
+        case v => future.complete(v)
+      }
+    } catch {
+      case e: Throwable => future.completeExceptionally(e)
+    }
+    future
+  }
+
+  /** All chunks of a channel concatenated, taken by `take!` callbacks.
+   *
+   * Cancelling the future closes the channel. An expired deadline closes it
+   * too and fails the future with an `Interrupted` anomaly. Anomalies and
+   * exceptions thrown by `channelOrValue` fail the future. A value that is
+   * not a channel is taken as the only chunk.
+   */
+  def takeAllAsync(
+    channelOrValue: => AnyRef,
+    deadline: Option[Deadline] = None
+  ): CompletableFuture[jList[AnyRef]] = {
+    val future = new CompletableFuture[jList[AnyRef]]()
+    val chunks = new jArrayList[AnyRef]()
+    try {
+      channelOrValue match {
+        case channel: IType =>
+          closeWhenAbandoned(future, channel, deadline)
+          // Callbacks always dispatched (on-caller? false) to avoid recursion
+          take.invoke(channel, new AFn {
+            override def invoke(value: AnyRef): AnyRef = {
+              value match {
+                case null =>
+                  future.complete(chunks)
+
+                case anomalyMap: PersistentArrayMap
+                  if anomalyMap.containsKey(Kw.anomalyCategory) =>
+                  future.completeExceptionally(anomaly(anomalyMap))
+
+                case chunk =>
+                  chunks.addAll(chunk.asInstanceOf[jCollection[AnyRef]])
+                  if (!future.isDone)
+                    take.invoke(channel, this, java.lang.Boolean.FALSE)
+              }
+              null
+            }
+          }, java.lang.Boolean.FALSE)
+
+        case coll: jCollection[_] =>
+          chunks.addAll(coll.asInstanceOf[jCollection[AnyRef]])
+          future.complete(chunks)
+
+        case v =>
+          chunks.add(v)
+          future.complete(chunks)
+      }
+    } catch {
+      case e: Throwable => future.completeExceptionally(e)
+    }
+    future
+  }
+
+  /** Closes `channel` when `future` is cancelled or the deadline expires.
+   *
+   * On expiry the future is failed with an `Interrupted` anomaly.
+   */
+  def closeWhenAbandoned[T](
+    future: CompletableFuture[T],
+    channel: AnyRef,
+    deadline: Option[Deadline]
+  ): Unit = {
+    future.whenComplete { (_: T, failure: Throwable) =>
+      if (failure.isInstanceOf[CancellationException])
+        close.invoke(channel)
+      ()
+    }
+    deadline.foreach { d =>
+      val expiry = Deadline.schedule(d) {
+        if (future.completeExceptionally(Interrupted(ErrorMsg.deadline)))
+          close.invoke(channel)
+      }
+      future.whenComplete { (_: T, _: Throwable) =>
+        expiry.cancel(false)
+        ()
+      }
+    }
+  }
+}
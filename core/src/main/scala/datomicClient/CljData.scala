@@ -0,0 +1,83 @@
+package datomicClient
+
+import java.math.BigInteger
+import java.util.{RandomAccess, List => jList, Map => jMap, Set => jSet}
+import clojure.lang.{IPersistentList, IPersistentMap, IPersistentSet, IPersistentVector, LazilyPersistentVector, PersistentArrayMap, PersistentHashMap, PersistentHashSet, PersistentList, BigInt => clBigInt, Keyword => clKeyword, Symbol => clSymbol}
+import datomic.db.DbId
+
+
+/** Structural conversion of java data to clojure data.
+ *
+ * Produces the same values as printing with `ClojureBridge.edn` and reading the
+ * edn text back, but walks the data directly so that no text is created.
+ */
+object CljData {
+
+  /** Statements of a transaction as a clojure vector. */
+  def txData(stmts: jList[_]): IPersistentVector = vector(stmts)
+
+
+  def value(v: Any): AnyRef = v match {
+    case null                    => null
+    case s: String               => s
+    case kw: clKeyword           => kw
+    case n: java.lang.Long       => n
+    case m: jMap[_, _]           => map(m)
+    case l: RandomAccess         => vector(l.asInstanceOf[jList[_]])
+    case l: jList[_]             => list(l)
+    case s: jSet[_]              => set(s)
+    case n: Int                  => Long.box(n.toLong)
+    case n: Short                => Long.box(n.toLong)
+    case n: Byte                 => Long.box(n.toLong)
+    case n: Float                => Double.box(n.toDouble)
+    case n: BigInteger           => clBigInt.fromBigInteger(n)
+    case id: DbId                => dbId(id)
+    case kw: us.bpsm.edn.Keyword => clKeyword.intern(kw.toString.substring(1))
+    case s: us.bpsm.edn.Symbol   => clSymbol.intern(s.toString)
+    // Symbols, Booleans, Doubles, BigInts, BigDecimals, Characters, Dates, UUIDs, URIs...
+    case other                   => other.asInstanceOf[AnyRef]
+  }
+
+
+  private def values(coll: java.util.Collection[_]): Array[AnyRef] = {
+    val arr = new Array[AnyRef](coll.size)
+    var i   = 0
+    coll.forEach { e =>
+      arr(i) = value(e)
+      i += 1
+    }
+    arr
+  }
+
+  private def vector(l: jList[_]): IPersistentVector =
+    LazilyPersistentVector.createOwning(values(l): _*)
+
+  private def list(l: jList[_]): IPersistentList =
+    PersistentList.create(java.util.Arrays.asList(values(l): _*))
+
+  private def set(s: jSet[_]): IPersistentSet =
+    PersistentHashSet.create(values(s): _*)
+
+  private def map(m: jMap[_, _]): IPersistentMap = {
+    val kvs = new Array[AnyRef](m.size * 2)
+    var i   = 0
+    m.forEach { (k, v) =>
+      kvs(i) = value(k)
+      kvs(i + 1) = value(v)
+      i += 2
+    }
+    // Same threshold as clojure uses for array maps
+    if (kvs.length <= 16) new PersistentArrayMap(kvs) else PersistentHashMap.create(kvs: _*)
+  }
+
+  private def dbId(id: DbId): AnyRef = {
+    if (id.idx.asInstanceOf[Long] > 0) {
+      // Entity id
+      id.idx
+    } else {
+      // Temp id treated as text to be resolved in tx
+      // Skipping partition information since the client.api disregards it anyway.
+      id.idx.toString
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package datomicClient
+
+import java.lang.{Iterable => jIterable}
+import java.util.{ArrayList, BitSet, Collection => jCollection, Collections}
+import clojure.lang.ILookup
+
+
+/** Raw datoms decoded into unboxed fields shared by the Java and Scala
+ * primitive datoms and datom batches.
+ */
+object DatomColumns {
+
+  /** Attribute id of a raw datom.
+   *
+   * Attribute ids are entity ids of the db partition and fit in an Int. An
+   * ident like `:movie/title` in place of the id is rejected since decoding
+   * has no db to resolve it with.
+   */
+  def attrId(d: ILookup): Int = d.valAt(Kw.a) match {
+    case id: java.lang.Number => Math.toIntExact(id.longValue)
+    case a                    => throw new IllegalArgumentException(ErrorMsg.attrNotId(a))
+  }
+
+  /** Page of raw datoms decoded into parallel columns passed to `batch`.
+   *
+   * Values are passed in `longValues` when all values of the page are longs
+   * and otherwise in `values`, the other column being null.
+   */
+  def decode[B](rawDatoms: Any)(
+    batch: (Int, Array[Long], Array[Int], Array[Long], BitSet, Array[Long], Array[AnyRef]) => B
+  ): B = {
+    val datoms: jCollection[_] = rawDatoms match {
+      case coll: jCollection[_] => coll
+      case iterable: jIterable[_] =>
+        val list = new ArrayList[Any]()
+        val it   = iterable.iterator
+        while (it.hasNext) list.add(it.next)
+        list
+      case _                    => Collections.emptyList()
+    }
+    val size     = datoms.size
+    val e        = new Array[Long](size)
+    val a        = new Array[Int](size)
+    val tx       = new Array[Long](size)
+    val added    = new BitSet(size)
+    val values   = new Array[AnyRef](size)
+    var allLongs = true
+    var i        = 0
+    val it       = datoms.iterator
+    while (it.hasNext) {
+      val d = it.next.asInstanceOf[ILookup]
+      e(i) = d.valAt(Kw.e).asInstanceOf[Long]
+      a(i) = attrId(d)
+      tx(i) = d.valAt(Kw.tx).asInstanceOf[Long]
+      if (d.valAt(Kw.added).asInstanceOf[Boolean])
+        added.set(i)
+      val v = d.valAt(Kw.v)
+      if (!v.isInstanceOf[java.lang.Long])
+        allLongs = false
+      values(i) = v
+      i += 1
+    }
+    if (allLongs) {
+      val longValues = new Array[Long](size)
+      i = 0
+      while (i < size) {
+        longValues(i) = values(i).asInstanceOf[Long]
+        i += 1
+      }
+      batch(size, e, a, tx, added, longValues, null)
+    } else {
+      batch(size, e, a, tx, added, null, values)
+    }
+  }
+}
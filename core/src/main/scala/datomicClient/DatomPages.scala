@@ -0,0 +1,320 @@
+package datomicClient
+
+import java.lang.{Iterable => jIterable}
+import java.util.concurrent.{CompletableFuture, TimeUnit, TimeoutException}
+import java.util.{Collections, Arrays => jArrays, Iterator => jIterator, List => jList}
+import clojure.lang.{AFn, ILookup, IType, PersistentArrayMap, Util}
+import datomicClient.anomaly.{AnomalyWrapper, Interrupted}
+
+
+/** Raw datoms fetched lazily page by page.
+ *
+ * Only the page being consumed is referenced so that memory stays bounded by
+ * the page size however large the scanned index slice is. Anomalies met
+ * after the first page are thrown when iterating.
+ *
+ * With a deadline, each page request gets the remaining budget as timeout
+ * and waiting for a chunk throws an `Interrupted` anomaly and closes the
+ * channel when the deadline expires.
+ */
+object DatomPages {
+
+  /** Datoms of an index read in chunks of `pageSize` from one server-side cursor.
+   *
+   * The client api can't seek `datoms` to a key beyond its components, so
+   * the pages are the chunks of an unlimited result consumed one at a time.
+   */
+  def datoms(
+    invoke: Invoke,
+    datomicDb: AnyRef,
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    pageSize: Int,
+    deadline: Option[Deadline] = None
+  ): jIterator[ILookup] = new Chunks(
+    invoke.datoms(
+      datomicDb, index, components, Deadline.timeout(deadline, timeout), 0, -1, pageSize
+    ),
+    deadline
+  )
+
+  /** Datoms of an attribute range where each page resumes from the value of
+   * the last datom of the previous page.
+   *
+   * The rest of a value run spanning pages, like the datoms of a boolean or
+   * enum attribute, is read from one `datoms` cursor instead of pages
+   * skipping ever more datoms of that value.
+   */
+  def indexRange(
+    invoke: Invoke,
+    datomicDb: AnyRef,
+    attrId: String,
+    start: Option[Any],
+    end: Option[Any],
+    timeout: Int,
+    pageSize: Int,
+    deadline: Option[Deadline] = None
+  ): jIterator[ILookup] = {
+    if (pageSize < 1)
+      throw new IllegalArgumentException(ErrorMsg.zeroNeg)
+    new IndexRangePages(invoke, datomicDb, attrId, start, end, timeout, pageSize, deadline)
+  }
+
+
+  /** `datoms` pages with the first chunk taken by a `take!` callback.
+   *
+   * No thread waits for the first chunk. Later chunks are waited for by the
+   * thread consuming the iterator.
+   */
+  def datomsAsync(
+    invoke: Invoke,
+    datomicDb: AnyRef,
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    pageSize: Int,
+    deadline: Option[Deadline] = None
+  ): CompletableFuture[jIterator[ILookup]] = primed(
+    invoke.datoms(
+      datomicDb, index, components, Deadline.timeout(deadline, timeout), 0, -1, pageSize
+    ),
+    deadline
+  )(first => first)
+
+  /** `indexRange` pages with the first chunk taken by a `take!` callback.
+   *
+   * No thread waits for the first chunk. Later chunks and pages are waited
+   * for by the thread consuming the iterator.
+   */
+  def indexRangeAsync(
+    invoke: Invoke,
+    datomicDb: AnyRef,
+    attrId: String,
+    start: Option[Any],
+    end: Option[Any],
+    timeout: Int,
+    pageSize: Int,
+    deadline: Option[Deadline] = None
+  ): CompletableFuture[jIterator[ILookup]] = {
+    if (pageSize < 1)
+      throw new IllegalArgumentException(ErrorMsg.zeroNeg)
+    primed(
+      invoke.indexRange(
+        datomicDb, attrId, start, end, Deadline.timeout(deadline, timeout), 0, pageSize
+      ),
+      deadline
+    )(first =>
+      new IndexRangePages(invoke, datomicDb, attrId, start, end, timeout, pageSize, deadline, first)
+    )
+  }
+
+  private def primed(result: => AnyRef, deadline: Option[Deadline])(
+    pages: Chunks => jIterator[ILookup]
+  ): CompletableFuture[jIterator[ILookup]] = {
+    if (deadline.exists(_.isExpired)) {
+      val failed = new CompletableFuture[jIterator[ILookup]]()
+      failed.completeExceptionally(Interrupted(ErrorMsg.deadline))
+      failed
+    } else {
+      val future = new CompletableFuture[jIterator[ILookup]]()
+      try {
+        val channelOrValue = result
+        channelOrValue match {
+          case channel: IType => CoreAsync.closeWhenAbandoned(future, channel, deadline)
+          case _              =>
+        }
+        CoreAsync.takeAsync(channelOrValue).whenComplete {
+          (chunk: AnyRef, failure: Throwable) =>
+            if (failure != null)
+              future.completeExceptionally(failure)
+            else
+              future.complete(pages(new Chunks(channelOrValue, deadline, Some(chunk))))
+            ()
+        }
+      } catch {
+        case e: Throwable => future.completeExceptionally(e)
+      }
+      future
+    }
+  }
+
+
+  // Datoms of a sync result or of the chunks of an async channel
+  // The first chunk of a channel may have been taken already.
+  private[datomicClient] class Chunks(
+    result: AnyRef,
+    deadline: Option[Deadline] = None,
+    taken: Option[AnyRef] = None
+  ) extends jIterator[ILookup] with AnomalyWrapper {
+
+    private var channel: AnyRef       = result match {
+      case ch: IType => ch
+      case _         => null
+    }
+    private var it     : jIterator[_] = result match {
+      case iterable: jIterable[_] => iterable.iterator
+      case _                      => Collections.emptyIterator()
+    }
+
+    if (channel != null) {
+      taken.foreach {
+        case null  => channel = null
+        case chunk => it = chunk.asInstanceOf[jIterable[_]].iterator
+      }
+    }
+
+    override def hasNext: Boolean = {
+      while (!it.hasNext && channel != null) {
+        take(channel) match {
+          case null =>
+            channel = null
+
+          case anomalyMap: PersistentArrayMap
+            if anomalyMap.containsKey(Kw.anomalyCategory) =>
+            channel = null
+            throw anomaly(anomalyMap)
+
+          case chunk =>
+            it = chunk.asInstanceOf[jIterable[_]].iterator
+        }
+      }
+      it.hasNext
+    }
+
+    override def next(): ILookup = {
+      if (!hasNext)
+        throw new NoSuchElementException()
+      it.next.asInstanceOf[ILookup]
+    }
+
+    private def take(ch: AnyRef): AnyRef = deadline match {
+      case None    => CoreAsync.<!!.invoke(ch)
+      case Some(d) =>
+        val taken = new CompletableFuture[AnyRef]()
+        CoreAsync.take.invoke(ch, new AFn {
+          override def invoke(value: AnyRef): AnyRef = {
+            taken.complete(value)
+            null
+          }
+        })
+        try {
+          taken.get(math.max(0L, d.remainingNanos), TimeUnit.NANOSECONDS)
+        } catch {
+          case _: TimeoutException =>
+            abandon(ch)
+            throw Interrupted(ErrorMsg.deadline)
+
+          case _: InterruptedException =>
+            abandon(ch)
+            Thread.currentThread.interrupt()
+            throw Interrupted(ErrorMsg.interrupted)
+        }
+    }
+
+    private def abandon(ch: AnyRef): Unit = {
+      CoreAsync.close.invoke(ch)
+      channel = null
+    }
+  }
+
+
+  // Resuming from the last value skips the datoms of that value already
+  // returned with `offset`. While that is less than a page, each resume
+  // skips at most a page. A page holding only one value is part of a run
+  // spanning pages, like the values of a boolean or enum attribute. The rest
+  // of the run is then read from one `datoms :avet [a v]` cursor, and the
+  // range resumes once after the run instead of skipping ever deeper into it
+  // on each page.
+  private class IndexRangePages(
+    invoke: Invoke,
+    datomicDb: AnyRef,
+    attrId: String,
+    start0: Option[Any],
+    end: Option[Any],
+    timeout: Int,
+    pageSize: Int,
+    deadline: Option[Deadline],
+    firstPage: jIterator[ILookup] = null
+  ) extends jIterator[ILookup] {
+
+    private var start : Option[Any]        = start0
+    private var offset: Int                = 0
+    private var page  : jIterator[ILookup] = if (firstPage != null) firstPage else fetch()
+    private var count : Int                = 0
+    private var inRun : Boolean            = false
+
+    // Value of last datom and number of consecutive datoms with that value
+    // returned so far. Those are skipped with `offset` when resuming from it.
+    private var lastV: AnyRef = null
+    private var sameV: Int    = 0
+
+    private def checkDeadline(): Unit =
+      if (deadline.exists(_.isExpired))
+        throw Interrupted(ErrorMsg.deadline)
+
+    // Remaining budget taken again for each page
+    private def fetch(): jIterator[ILookup] = {
+      checkDeadline()
+      new Chunks(
+        invoke.indexRange(
+          datomicDb, attrId, start, end, Deadline.timeout(deadline, timeout), offset, pageSize
+        ),
+        deadline
+      )
+    }
+
+    // Rest of the run of `lastV` in chunks of one cursor
+    private def fetchRun(): jIterator[ILookup] = {
+      checkDeadline()
+      new Chunks(
+        invoke.datoms(
+          datomicDb, ":avet", jArrays.asList(ArgMap.kw(attrId), lastV),
+          Deadline.timeout(deadline, timeout), sameV, -1, pageSize
+        ),
+        deadline
+      )
+    }
+
+    override def hasNext: Boolean = {
+      if (!page.hasNext) {
+        if (inRun) {
+          // Run done, resume after it
+          inRun = false
+          start = Some(lastV)
+          offset = sameV
+          count = 0
+          page = fetch()
+        } else if (count == pageSize) {
+          if (sameV >= pageSize && lastV != null) {
+            inRun = true
+            page = fetchRun()
+            if (!page.hasNext)
+              return hasNext
+          } else {
+            start = Some(lastV)
+            offset = sameV
+            count = 0
+            page = fetch()
+          }
+        }
+      }
+      page.hasNext
+    }
+
+    override def next(): ILookup = {
+      if (!hasNext)
+        throw new NoSuchElementException()
+      val d = page.next()
+      val v = d.valAt(Kw.v)
+      if (sameV > 0 && Util.equiv(v, lastV)) {
+        sameV += 1
+      } else {
+        lastV = v
+        sameV = 1
+      }
+      count += 1
+      d
+    }
+  }
+}
@@ -1,9 +1,9 @@
 package datomicClient
 
+import java.util.concurrent.CompletableFuture
 import java.util.{Date, Map => jMap}
-import clojure.lang.ILookup
+import clojure.lang.{ILookup, Keyword}
 import datomic.Peer
-import datomic.Util.read
 import datomicScala.client.api.sync.Db
 
 
@@ -14,61 +14,97 @@ class DbLookup(
 
   lazy protected val isDevLocal = datomicDb.isInstanceOf[clojure.lang.IPersistentMap]
 
-  def dbName: String = valAt[String](if (isDevLocal) ":id" else ":db-name").get
+  def dbName: String = valAt[String](if (isDevLocal) Kw.id else Kw.dbName).get
 
-  def t: Long = valAt[Long](":t").getOrElse(0L)
+  def t: Long = valAt[Long](Kw.t).getOrElse(0L)
 
   def asOfT: Long = {
     if (isDevLocal) {
-      valAt[Long](":as-of").getOrElse(0L)
+      valAt[Long](Kw.asOf).getOrElse(0L)
     } else {
-      datomicDb.asInstanceOf[clojure.lang.ILookup].valAt(read(":as-of"), "err") match {
+      datomicDb.asInstanceOf[clojure.lang.ILookup].valAt(Kw.asOf, "err") match {
         case d: Date =>
           // Find datom from txInstant value (within d to d2 range)
-          val d2 = Date.from(d.toInstant.plusSeconds(1))
-          val it = Invoke.indexRange(datomicDb, ":db/txInstant", Some(d), Some(d2))
-            .asInstanceOf[java.lang.Iterable[_]].iterator()
-
-          if (it.hasNext) {
-            it.next().asInstanceOf[ILookup].valAt(read(":e"), "err") match {
-              case "err" => throw new RuntimeException("Unexpected missing e value for datom.")
-              case v     =>
-                Peer.toT(v.toString.toLong)
-            }
-          } else {
-            throw new RuntimeException(
-              "Unexpectedly couldn't find datom with txInstant " + d.toInstant
-            )
-          }
+          txInstT(d, Invoke.indexRange(datomicDb, ":db/txInstant", Some(d), Some(nextSecond(d))))
         case "err"   => 0L
         case tx      => Peer.toT(tx)
       }
     }
   }
 
+  // As-of t with the tx of an as-of Date found with a take! callback instead
+  // of blocking. Anomalies fail the future.
+  protected def asOfTFuture: CompletableFuture[java.lang.Long] = {
+    val asOfT: Long => CompletableFuture[java.lang.Long] =
+      t => CompletableFuture.completedFuture(t)
+    if (isDevLocal) {
+      asOfT(valAt[Long](Kw.asOf).getOrElse(0L))
+    } else {
+      datomicDb.asInstanceOf[clojure.lang.ILookup].valAt(Kw.asOf, "err") match {
+        case d: Date =>
+          CoreAsync.takeAsync(
+            InvokeAsync.indexRange(datomicDb, ":db/txInstant", Some(d), Some(nextSecond(d)))
+          ).thenApply(datoms => java.lang.Long.valueOf(txInstT(d, datoms)))
+        case "err"   => asOfT(0L)
+        case tx      => asOfT(Peer.toT(tx))
+      }
+    }
+  }
+
+  private def txInstT(d: Date, datoms: AnyRef): Long = {
+    val it = datoms.asInstanceOf[java.lang.Iterable[_]].iterator()
+    if (it.hasNext) {
+      it.next().asInstanceOf[ILookup].valAt(Kw.e, "err") match {
+        case "err" => throw new RuntimeException("Unexpected missing e value for datom.")
+        case v     =>
+          Peer.toT(v.toString.toLong)
+      }
+    } else {
+      throw new RuntimeException(
+        "Unexpectedly couldn't find datom with txInstant " + d.toInstant
+      )
+    }
+  }
+
   def asOfTxInst: Date = {
-    val timePoint = datomicDb.asInstanceOf[clojure.lang.ILookup].valAt(read(":as-of"), "err")
+    val timePoint = datomicDb.asInstanceOf[clojure.lang.ILookup].valAt(Kw.asOf, "err")
     timePoint match {
       case d: Date => d
       case "err"   => null
       case t       =>
-        val tx   = Peer.toTx(t.asInstanceOf[Long])
-        val inst = Db(datomicDb).pull("[:db/txInstant]", tx)
-        if (inst == null) {
-          null
-        } else {
-          inst.asInstanceOf[clojure.lang.PersistentArrayMap]
-            .get(read(":db/txInstant")).asInstanceOf[Date] match {
-            // Beginning of time considered null
-            case d if d == new Date(0) => null
-            case d                     => d
-          }
-        }
+        val tx = Peer.toTx(t.asInstanceOf[Long])
+        pulledTxInst(Db(datomicDb).pull("[:db/txInstant]", tx))
+    }
+  }
+
+  // As-of tx instant pulled with a take! callback instead of blocking.
+  // Anomalies fail the future.
+  protected def asOfTxInstFuture: CompletableFuture[Date] = {
+    val timePoint = datomicDb.asInstanceOf[clojure.lang.ILookup].valAt(Kw.asOf, "err")
+    timePoint match {
+      case d: Date => CompletableFuture.completedFuture(d)
+      case "err"   => CompletableFuture.completedFuture(null)
+      case t       =>
+        CoreAsync.takeAsync(
+          InvokeAsync.pull(datomicDb, "[:db/txInstant]", Peer.toTx(t.asInstanceOf[Long]))
+        ).thenApply(pulled => pulledTxInst(pulled))
+    }
+  }
+
+  private def pulledTxInst(inst: AnyRef): Date = {
+    if (inst == null) {
+      null
+    } else {
+      inst.asInstanceOf[jMap[_, _]].get(Kw.txInstant).asInstanceOf[Date] match {
+        // Beginning of time considered null
+        case d if d == new Date(0) => null
+        case d                     => d
+      }
     }
   }
 
   def sinceT: Long = if (isDevLocal) {
-    valAt[Long](":since").getOrElse(0L)
+    valAt[Long](Kw.since).getOrElse(0L)
   } else {
     sinceTimePoint.fold(0L) { case (t, _, _) => t }
   }
@@ -80,36 +116,56 @@ class DbLookup(
   }
 
   def isHistory: Boolean = if (isDevLocal) {
-    valAt[Boolean](":history?").getOrElse(false)
+    valAt[Boolean](Kw.isHistory).getOrElse(false)
   } else {
-    valAt[Boolean](":history").getOrElse(false)
+    valAt[Boolean](Kw.history).getOrElse(false)
   }
 
-  private def valAt[T](key: String): Option[T] = {
+  private def valAt[T](key: Keyword): Option[T] = {
     // dev-local and peer-server have different implementations
-    datomicDb.asInstanceOf[clojure.lang.ILookup].valAt(read(key), "err") match {
+    datomicDb.asInstanceOf[clojure.lang.ILookup].valAt(key, "err") match {
       case null  => None // returned by dev-local
       case "err" => None // returned by Peer Server
       case v     => Some(v.asInstanceOf[T])
     }
   }
 
-  protected def extractSinceTimePoint(tOrTx: Long): Option[(Long, Long, Date)] = {
-    // todo: Blocking... hmm
-    val t  = Peer.toT(tOrTx.asInstanceOf[Long])
-    val tx = Peer.toTx(tOrTx.asInstanceOf[Long]).asInstanceOf[Long]
-    val d  = Invoke.pull(datomicDb, "[:db/txInstant]", tx).asInstanceOf[jMap[_, _]]
-      .get(read(":db/txInstant")).asInstanceOf[Date]
+  protected def extractSinceTimePoint(tOrTx: Long): Option[(Long, Long, Date)] =
+    txTimePoint(tOrTx, Invoke.pull(datomicDb, "[:db/txInstant]", Peer.toTx(tOrTx)))
+
+  protected def extractSinceTimePoint(d: Date): Option[(Long, Long, Date)] =
+    instTimePoint(d, Invoke.indexRange(datomicDb, ":db/txInstant", Some(d), Some(nextSecond(d))))
+
+  // Time point resolved with a take! callback instead of blocking.
+  // Anomalies fail the future.
+  protected def extractSinceTimePointAsync(
+    tOrTx: Long
+  ): CompletableFuture[Option[(Long, Long, Date)]] =
+    CoreAsync.takeAsync(
+      InvokeAsync.pull(datomicDb, "[:db/txInstant]", Peer.toTx(tOrTx))
+    ).thenApply(pulled => txTimePoint(tOrTx, pulled))
+
+  protected def extractSinceTimePointAsync(
+    d: Date
+  ): CompletableFuture[Option[(Long, Long, Date)]] =
+    CoreAsync.takeAsync(
+      InvokeAsync.indexRange(datomicDb, ":db/txInstant", Some(d), Some(nextSecond(d)))
+    ).thenApply(datoms => instTimePoint(d, datoms))
+
+
+  private def nextSecond(d: Date): Date = Date.from(d.toInstant.plusSeconds(1))
+
+  private def txTimePoint(tOrTx: Long, pulled: AnyRef): Option[(Long, Long, Date)] = {
+    val t  = Peer.toT(tOrTx)
+    val tx = Peer.toTx(tOrTx).asInstanceOf[Long]
+    val d  = pulled.asInstanceOf[jMap[_, _]].get(Kw.txInstant).asInstanceOf[Date]
     Some((t, tx, d))
   }
 
-  protected def extractSinceTimePoint(d: Date): Option[(Long, Long, Date)] = {
-    // todo: Blocking... hmm
-    val d2      = Date.from(d.toInstant.plusSeconds(1))
-    val it      = Invoke.indexRange(datomicDb, ":db/txInstant", Some(d), Some(d2))
-      .asInstanceOf[java.lang.Iterable[_]].iterator()
+  private def instTimePoint(d: Date, datoms: AnyRef): Option[(Long, Long, Date)] = {
+    val it      = datoms.asInstanceOf[java.lang.Iterable[_]].iterator()
     val (t, tx) = if (it.hasNext) {
-      it.next().asInstanceOf[ILookup].valAt(read(":e"), "err") match {
+      it.next().asInstanceOf[ILookup].valAt(Kw.e, "err") match {
         case "err" => throw new RuntimeException("Unexpected missing e value for datom.")
         case v     =>
           val n = v.toString.toLong
@@ -123,3 +179,4 @@ class DbLookup(
     Some((t, tx, d))
   }
 }
+
@@ -0,0 +1,58 @@
+package datomicClient
+
+import java.time.Duration
+import java.util.concurrent.{Executors, ScheduledExecutorService, ScheduledFuture, ThreadFactory, TimeUnit}
+
+
+/** Absolute time budget shared by the calls of an operation.
+ *
+ * The remaining budget bounds the `:timeout` of each call so that the server
+ * gives up in time too. Client-side the pending take of a call is abandoned
+ * and its channel closed when the deadline expires.
+ *
+ * @param nanoTime expiry as a `System.nanoTime` value
+ */
+final case class Deadline(nanoTime: Long) {
+
+  def remainingNanos: Long = nanoTime - System.nanoTime()
+
+  def remainingMillis: Long = math.max(0L, TimeUnit.NANOSECONDS.toMillis(remainingNanos))
+
+  def isExpired: Boolean = remainingNanos <= 0
+
+  /** `timeout` in ms bounded by the remaining budget (0 means no timeout). */
+  def timeout(timeout: Int): Int = {
+    val remaining = math.max(1L, math.min(remainingMillis, Int.MaxValue.toLong)).toInt
+    if (timeout > 0) math.min(timeout, remaining) else remaining
+  }
+}
+
+
+object Deadline {
+
+  def in(millis: Long): Deadline =
+    Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis))
+
+  def in(duration: Duration): Deadline =
+    Deadline(System.nanoTime() + duration.toNanos)
+
+  /** `timeout` bounded by the deadline if any. */
+  def timeout(deadline: Option[Deadline], timeout: Int): Int =
+    deadline.fold(timeout)(_.timeout(timeout))
+
+
+  private lazy val timer: ScheduledExecutorService =
+    Executors.newSingleThreadScheduledExecutor(new ThreadFactory {
+      override def newThread(r: Runnable): Thread = {
+        val t = new Thread(r, "datomic-client-deadline")
+        t.setDaemon(true)
+        t
+      }
+    })
+
+  /** Runs `expire` when the deadline expires unless cancelled before. */
+  def schedule(deadline: Deadline)(expire: => Unit): ScheduledFuture[_] =
+    timer.schedule(new Runnable {
+      override def run(): Unit = expire
+    }, math.max(0L, deadline.remainingNanos), TimeUnit.NANOSECONDS)
+}
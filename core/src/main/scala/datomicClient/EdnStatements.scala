@@ -0,0 +1,117 @@
+package datomicClient
+
+import java.io.{FilterReader, PushbackReader, Reader}
+import java.util.{NoSuchElementException, Iterator => jIterator}
+import clojure.java.api.Clojure
+import clojure.lang.{AFn, EdnReader, IPersistentMap, Keyword, PersistentArrayMap, Var}
+
+
+/** Statements of EDN tx data read one at a time.
+ *
+ * Top-level vectors are taken as tx data and their statements are read one
+ * by one without reading the whole vector. Other top-level forms are taken as
+ * single statements. So only the current statement is held in memory.
+ *
+ * Tagged literals are read like `datomic.Util.readAll` reads them, with the
+ * data readers on the classpath, like Datomic's `#db/id` and `#db/fn`. Other
+ * tags are rejected.
+ *
+ * @param reader source of EDN text, not closed by the iterator
+ */
+final class EdnStatements(reader: Reader) extends jIterator[AnyRef] {
+
+  private var consumed = 0L
+
+  private val in = new PushbackReader(new FilterReader(reader) {
+    override def read(): Int = {
+      val c = super.read()
+      if (c != -1) consumed += 1
+      c
+    }
+    override def read(buf: Array[Char], off: Int, len: Int): Int = {
+      val n = super.read(buf, off, len)
+      if (n > 0) consumed += n
+      n
+    }
+  })
+
+  private var inTxData = false
+  private var pending  = Option.empty[AnyRef]
+
+  /** Number of characters read from the source so far. */
+  def position: Long = consumed
+
+  override def hasNext: Boolean = {
+    if (pending.isEmpty)
+      pending = readStmt()
+    pending.nonEmpty
+  }
+
+  override def next(): AnyRef = {
+    if (!hasNext)
+      throw new NoSuchElementException()
+    val stmt = pending.get
+    pending = None
+    stmt
+  }
+
+  private def readStmt(): Option[AnyRef] = {
+    var stmt = Option.empty[AnyRef]
+    var eof  = false
+    while (stmt.isEmpty && !eof) {
+      skipWhitespace() match {
+        case -1                         => eof = true
+        case c if c == ']' && inTxData  => inTxData = false
+        case c if c == '[' && !inTxData => inTxData = true
+        case c                          =>
+          in.unread(c)
+          stmt = Some(EdnReader.read(in, EdnStatements.readerOpts))
+      }
+    }
+    stmt
+  }
+
+  // First char that is not whitespace, a comma or part of a comment
+  private def skipWhitespace(): Int = {
+    var c = in.read()
+    while (c != -1 && (Character.isWhitespace(c) || c == ',' || c == ';')) {
+      if (c == ';') {
+        while (c != -1 && c != '\n')
+          c = in.read()
+      } else {
+        c = in.read()
+      }
+    }
+    c
+  }
+}
+
+
+object EdnStatements {
+
+  // Data readers of the data_readers.clj files on the classpath with the
+  // namespace of a reader function loaded when its tag is first read
+  private[datomicClient] lazy val readerOpts: IPersistentMap = {
+    val require = Clojure.var("clojure.core", "require")
+    val loaded  = Clojure.var("clojure.core", "*data-readers*").asInstanceOf[Var].deref
+    var readers = PersistentArrayMap.EMPTY.asInstanceOf[IPersistentMap]
+    val it      = loaded.asInstanceOf[java.util.Map[AnyRef, AnyRef]].entrySet.iterator
+    while (it.hasNext) {
+      val entry  = it.next()
+      val reader = entry.getValue.asInstanceOf[Var]
+      readers = readers.assoc(entry.getKey, new AFn {
+        override def invoke(form: AnyRef): AnyRef = {
+          if (!reader.isBound)
+            require.invoke(reader.ns.getName)
+          reader.invoke(form)
+        }
+      })
+    }
+    PersistentArrayMap.EMPTY
+      .assoc(Keyword.intern("readers"), readers)
+      .assoc(Keyword.intern("default"), new AFn {
+        override def invoke(tag: AnyRef, form: AnyRef): AnyRef =
+          throw new IllegalArgumentException(ErrorMsg.ednTag(tag))
+      })
+  }
+}
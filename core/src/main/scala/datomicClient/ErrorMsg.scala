@@ -22,4 +22,23 @@ object ErrorMsg {
   def zeroNeg: String = "Number can't be 0 or negative"
 
   def limit: String = "Limit can only be a positive number or -1 for 'no limit'"
+
+  def deadline: String = "Datomic Client Deadline exceeded"
+
+  def interrupted: String = "Interrupted while waiting for Datomic Client result"
+
+  def batcherClosed: String = "Transaction batcher is closed"
+
+  def templateArity(expected: Int, actual: Int): String =
+    s"Transaction template expects $expected values but got $actual"
+
+  def templateKey: String = "Transaction template placeholders can't be map keys"
+
+  def tempIdNotFound(tempId: String): String = s"Temp id not found: $tempId"
+
+  def ednTag(tag: Any): String =
+    s"No reader for tag #$tag in tx data. Add it to a data_readers.clj on the classpath."
+
+  def attrNotId(a: Any): String =
+    s"Primitive datoms need attribute ids but got $a. Resolve idents to ids first."
 }
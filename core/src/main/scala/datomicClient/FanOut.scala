@@ -0,0 +1,86 @@
+package datomicClient
+
+import java.util.concurrent._
+import java.util.{ArrayList, List => jList}
+
+
+/** Blocking calls fanned out on one thread each and gathered fail-fast.
+ *
+ * On JDK 21+ each call runs on its own virtual thread. Sync calls wait on
+ * core.async promises (java.util.concurrent latches, not monitors), so a
+ * waiting call unmounts from its carrier thread instead of pinning it. On
+ * older JDKs, or JDK 19 and 20 without preview features enabled, a platform
+ * thread per call is used instead.
+ *
+ * The fan-out is structured: all threads of a call have ended when it
+ * returns. The first failure interrupts the calls still running and is
+ * rethrown, as is interruption of the calling thread.
+ */
+object FanOut {
+
+  // Looked up reflectively to keep compiling and running on older JDKs.
+  // Probed once since JDK 19 and 20 have the method but throw unless preview
+  // features are enabled.
+  private lazy val virtualThreadsFactory: Option[() => ExecutorService] = try {
+    val method = classOf[Executors].getMethod("newVirtualThreadPerTaskExecutor")
+    method.invoke(null).asInstanceOf[ExecutorService].shutdown()
+    Some(() => method.invoke(null).asInstanceOf[ExecutorService])
+  } catch {
+    case _: ReflectiveOperationException | _: UnsupportedOperationException => None
+  }
+
+  /** True when running on a JDK with virtual threads. */
+  def virtualThreads: Boolean = virtualThreadsFactory.isDefined
+
+  private def newExecutor(): ExecutorService = virtualThreadsFactory.fold(
+    Executors.newCachedThreadPool(new ThreadFactory {
+      override def newThread(r: Runnable): Thread = {
+        val t = new Thread(r, "datomic-client-fan-out")
+        t.setDaemon(true)
+        t
+      }
+    })
+  )(factory => factory())
+
+
+  /** Results of `task(0)` until `task(size - 1)` run concurrently, in order. */
+  def all[T](size: Int, task: Int => T): jList[T] = {
+    val results = new Array[Any](size)
+    if (size == 1) {
+      results(0) = task(0)
+    } else if (size > 1) {
+      val executor = newExecutor()
+      val done     = new ExecutorCompletionService[Unit](executor)
+      val futures  = new ArrayList[Future[Unit]](size)
+      try {
+        (0 until size).foreach { i =>
+          futures.add(done.submit(() => results(i) = task(i)))
+        }
+        (0 until size).foreach { _ =>
+          try {
+            done.take().get()
+          } catch {
+            case e: ExecutionException => throw e.getCause
+          }
+        }
+      } finally {
+        futures.forEach(_.cancel(true))
+        executor.shutdown()
+        // Threads of cancelled calls end when their blocking call is interrupted
+        var interrupted = false
+        while (!executor.isTerminated) {
+          try {
+            executor.awaitTermination(1, TimeUnit.SECONDS)
+          } catch {
+            case _: InterruptedException => interrupted = true
+          }
+        }
+        if (interrupted)
+          Thread.currentThread.interrupt()
+      }
+    }
+    val list = new ArrayList[T](size)
+    results.foreach(r => list.add(r.asInstanceOf[T]))
+    list
+  }
+}
@@ -0,0 +1,73 @@
+package datomicClient
+
+import java.util.concurrent.locks.ReentrantLock
+
+
+/** Adaptive bound on the number of transactions in flight.
+ *
+ * The limit starts at `maxInFlight` and adapts to the transactor on each
+ * release: it is halved when a transaction returns a `Busy` anomaly and
+ * lowered by one when the commit latency exceeds twice the lowest latency
+ * seen, which means that transactions are queueing. Otherwise it grows by
+ * one up to `maxInFlight`.
+ *
+ * @param maxInFlight upper bound of the limit
+ */
+final class InFlightWindow(maxInFlight: Int) {
+
+  if (maxInFlight < 1)
+    throw new IllegalArgumentException(ErrorMsg.zeroNeg)
+
+  private val lock       = new ReentrantLock()
+  private val vacancy    = lock.newCondition()
+  private var limit      = maxInFlight
+  private var inFlight   = 0
+  private var minLatency = Long.MaxValue
+
+  /** Blocks while the window is full.
+   *
+   * @return start time of the taken slot to pass to `release`
+   */
+  def acquire(): Long = {
+    lock.lockInterruptibly()
+    try {
+      while (inFlight >= limit)
+        vacancy.await()
+      inFlight += 1
+    } finally {
+      lock.unlock()
+    }
+    System.nanoTime()
+  }
+
+  /** Frees a slot and adapts the limit to the observed commit. */
+  def release(started: Long, busy: Boolean): Unit = {
+    val latency = System.nanoTime() - started
+    lock.lock()
+    try {
+      inFlight -= 1
+      limit = if (busy) {
+        math.max(1, limit / 2)
+      } else {
+        minLatency = math.min(minLatency, latency)
+        if (latency > 2 * minLatency)
+          math.max(1, limit - 1)
+        else
+          math.min(maxInFlight, limit + 1)
+      }
+      vacancy.signalAll()
+    } finally {
+      lock.unlock()
+    }
+  }
+
+  def currentLimit: Int = {
+    lock.lock()
+    try limit finally lock.unlock()
+  }
+
+  def inFlightCount: Int = {
+    lock.lock()
+    try inFlight finally lock.unlock()
+  }
+}
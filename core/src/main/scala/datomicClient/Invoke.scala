@@ -1,74 +1,25 @@
 package datomicClient
 
-import java.time.format.DateTimeFormatter
-import java.time.{Instant, LocalDateTime, OffsetDateTime, ZonedDateTime}
 import java.util.{Date, List => jList, Map => jMap}
-import clojure.lang.{IFn, PersistentHashMap}
+import clojure.lang.{IPersistentVector, PersistentHashMap}
 import com.amazonaws.auth.AWSCredentialsProviderChain
 import datomic.Util.read
+import datomicClient.ArgMap.{kw, value}
 import datomicClient.anomaly.AnomalyWrapper
 
 
 object Invoke extends Invoke {
-  val fn: String => IFn = (method: String) => syncFn(method)
+  val api: ClientApi = ClientApi.sync
 }
 
 object InvokeAsync extends Invoke {
-  val fn: String => IFn = (method: String) => datomicAsyncFn(method)
+  val api: ClientApi = ClientApi.async
 }
 
 trait Invoke extends ClojureBridge with AnomalyWrapper {
 
-  // sync/async fn to be invoked
-  val fn: String => IFn
-
-  // Helper methods ............................................................
-
-  private def positive(key: String, n: Int, default: Int = 0): String = n match {
-    case `default`  => ""
-    case n if n < 1 => throw new IllegalArgumentException(ErrorMsg.zeroNeg)
-    case n          => s":$key $n"
-  }
-  private def timeoutOpt(timeout: Int): String = positive("timeout", timeout)
-  private def offsetOpt(offset: Int): String = positive("offset", offset)
-
-  private def limitOpt(limit: Int): String = limit match {
-    case -1         => ":limit -1"
-    case n if n < 1 => throw new IllegalArgumentException(ErrorMsg.limit)
-    case n          => s":limit $n"
-  }
-
-  private def anyOpt(key: String, opt: Option[Any]): String = opt match {
-    case None            => ""
-    case Some(d: Date)   => s""":$key #inst "${date2datomicStr(d)}""""
-    case Some(s: String) => s""":$key "${read(s)}""""
-    case Some(v)         => s":$key $v"
-  }
-
-  private def date2datomicStr(date: Date): String = {
-    val zoneOffset = OffsetDateTime.now().getOffset
-    val pattern    = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX"
-    val ldt        = LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime), zoneOffset)
-    val zdt        = ZonedDateTime.of(ldt, zoneOffset)
-    zdt.format(DateTimeFormatter.ofPattern(pattern))
-  }
-
-  private def timePointOpt(key: String, opt: Option[Any]): String = {
-    def validNumber(n: Long): Long = {
-      if (n < 1)
-        throw new RuntimeException(s"Time point has to be > 0 (was $n)")
-      n
-    }
-    opt.fold("") {
-      case n: Int  => s":$key ${validNumber(n)}"
-      case n: Long => s":$key ${validNumber(n)}"
-      case d: Date => s""":$key #inst "${date2datomicStr(d)}""""
-      case x       => throw new RuntimeException(
-        s"Unexpected time point `$x` of type ${x.getClass}."
-      )
-    }
-  }
-
+  // sync/async functions to be invoked
+  val api: ClientApi
 
   // API .......................................................................
 
@@ -76,17 +27,18 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     datomicClient: AnyRef,
     options: jMap[_, _]
   ): jMap[_, _] = catchAnomaly {
-    val args = edn(options)
-    fn("administer-system").invoke(datomicClient, args).asInstanceOf[jMap[_, _]]
+    api.administerSystem.invoke(
+      datomicClient, PersistentHashMap.create(options)
+    ).asInstanceOf[jMap[_, _]]
   }
 
 
   def asOf(datomicDb: AnyRef, t: Long): AnyRef = catchAnomaly {
-    fn("as-of").invoke(datomicDb, t)
+    api.asOf.invoke(datomicDb, t)
   }
 
   def asOf(datomicDb: AnyRef, d: Date): AnyRef = catchAnomaly {
-    fn("as-of").invoke(datomicDb, d)
+    api.asOf.invoke(datomicDb, d)
   }
 
   def clientCloudAWS(
@@ -96,16 +48,15 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     credsProvider: AWSCredentialsProviderChain,
     proxyPort: Int
   ): AnyRef = catchAnomaly {
-    val argsMap = read(
-      s"""{
-         |:server-type :cloud
-         |:region "$region"
-         |:system "$system"
-         |:endpoint "$endpoint"
-         |:creds-provider $credsProvider
-         |:proxy-port $proxyPort
-         |}""".stripMargin)
-    fn("client").invoke(argsMap)
+    val argsMap = ArgMap(6)
+      .put(Kw.serverType, Kw.cloud)
+      .put(Kw.region, region)
+      .put(Kw.system, system)
+      .put(Kw.endpoint, endpoint)
+      .put(Kw.credsProvider, credsProvider)
+      .put(Kw.proxyPort, Long.box(proxyPort.toLong))
+      .build
+    api.client.invoke(argsMap)
   }
 
   def clientCloudCredsProfile(
@@ -115,31 +66,27 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     credsProfile: String,
     proxyPort: Int
   ): AnyRef = catchAnomaly {
-    val argsMap = read(
-      s"""{
-         |:server-type :cloud
-         |:region "$region"
-         |:system "$system"
-         |:endpoint "$endpoint"
-         |:creds-profile "$credsProfile"
-         |:proxy-port $proxyPort
-         |}""".stripMargin)
-    fn("client").invoke(argsMap)
+    val argsMap = ArgMap(6)
+      .put(Kw.serverType, Kw.cloud)
+      .put(Kw.region, region)
+      .put(Kw.system, system)
+      .put(Kw.endpoint, endpoint)
+      .put(Kw.credsProfile, credsProfile)
+      .put(Kw.proxyPort, Long.box(proxyPort.toLong))
+      .build
+    api.client.invoke(argsMap)
   }
 
   def clientDevLocal(
     system: String,
     storageDir: String // overrides :storage-dir in ~/.datomic/dev-local.edn
   ): AnyRef = catchAnomaly {
-    val storage = if (storageDir.nonEmpty)
-      s""":storage-dir "$storageDir"""".stripMargin else ""
-    val argsMap = read(
-      s"""{
-         |:server-type :dev-local
-         |:system "$system"
-         |$storage
-         |}""".stripMargin)
-    fn("client").invoke(argsMap)
+    val argsMap = ArgMap(3)
+      .put(Kw.serverType, Kw.devLocal)
+      .put(Kw.system, system)
+    if (storageDir.nonEmpty)
+      argsMap.put(Kw.storageDir, storageDir)
+    api.client.invoke(argsMap.build)
   }
 
   def clientPeerServer(
@@ -148,15 +95,14 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     endpoint: String,
     validateHostnames: Boolean
   ): AnyRef = catchAnomaly {
-    fn("client").invoke(
-      PersistentHashMap.createWithCheck(
-        read(":server-type"), read(":peer-server"),
-        read(":access-key"), accessKey,
-        read(":secret"), secret,
-        read(":endpoint"), endpoint,
-        read(":validate-hostnames"), validateHostnames.asInstanceOf[Object]
-      )
-    )
+    val argsMap = ArgMap(5)
+      .put(Kw.serverType, Kw.peerServer)
+      .put(Kw.accessKey, accessKey)
+      .put(Kw.secret, secret)
+      .put(Kw.endpoint, endpoint)
+      .put(Kw.validateHostnames, Boolean.box(validateHostnames))
+      .build
+    api.client.invoke(argsMap)
   }
 
   def connect(
@@ -164,13 +110,9 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     dbName: String,
     timeout: Int = 0
   ): AnyRef = catchAnomaly {
-    val argsMap = read(
-      s"""{
-         |:db-name "$dbName"
-         |${timeoutOpt(timeout)}
-         |}""".stripMargin)
+    val argsMap = ArgMap(2).put(Kw.dbName, dbName).timeout(timeout).build
     // Returns a connection or throws
-    fn("connect").invoke(datomicClient, argsMap)
+    api.connect.invoke(datomicClient, argsMap)
   }
 
 
@@ -179,9 +121,9 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     dbName: String,
     timeout: Int = 0
   ): AnyRef = catchAnomaly {
-    val argsMap = read(s"""{:db-name "$dbName"${timeoutOpt(timeout)}}""")
+    val argsMap = ArgMap(2).put(Kw.dbName, dbName).timeout(timeout).build
     // Returns true or anomaly
-    fn("create-database").invoke(datomicClient, argsMap)
+    api.createDatabase.invoke(datomicClient, argsMap)
   }
 
 
@@ -191,30 +133,24 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     componentsList: jList[_],
     timeout: Int = 0,
     offset: Int = 0,
-    limit: Int = 1000
+    limit: Int = 1000,
+    chunk: Int = 0
   ): AnyRef = catchAnomaly {
-    val components = if (componentsList.isEmpty) "" else
-      ":components " + edn(componentsList)
-    val argsMap    = read(
-      s"""{
-         |:index $index
-         |$components
-         |${timeoutOpt(timeout)}
-         |${offsetOpt(offset)}
-         |${limitOpt(limit)}
-         |}""".stripMargin
-    )
-    fn("datoms").invoke(datomicDb, argsMap)
+    val argsMap = ArgMap(6).put(Kw.index, kw(index))
+    if (!componentsList.isEmpty)
+      argsMap.put(Kw.components, value(componentsList))
+    argsMap.timeout(timeout).offset(offset).limit(limit).chunk(chunk)
+    api.datoms.invoke(datomicDb, argsMap.build)
   }
 
 
   def db(datomicConn: AnyRef): AnyRef = catchAnomaly {
-    fn("db").invoke(datomicConn)
+    api.db.invoke(datomicConn)
   }
 
 
   def dbStats(datomicDb: AnyRef): AnyRef = catchAnomaly {
-    fn("db-stats").invoke(datomicDb)
+    api.dbStats.invoke(datomicDb)
   }
 
 
@@ -223,14 +159,14 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     dbName: String,
     timeout: Int = 0
   ): AnyRef = catchAnomaly {
-    val argsMap = read(s"""{:db-name "$dbName"${timeoutOpt(timeout)}}""")
+    val argsMap = ArgMap(2).put(Kw.dbName, dbName).timeout(timeout).build
     // Returns true or anomaly
-    fn("delete-database").invoke(datomicClient, argsMap)
+    api.deleteDatabase.invoke(datomicClient, argsMap)
   }
 
 
   def history(datomicDb: AnyRef): AnyRef = catchAnomaly {
-    fn("history").invoke(datomicDb)
+    api.history.invoke(datomicDb)
   }
 
 
@@ -242,25 +178,21 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     reverse: Boolean = false,
     timeout: Int = 0,
     offset: Int = 0,
-    limit: Int = 1000
+    limit: Int = 1000,
+    chunk: Int = 0
   ): AnyRef = {
     if (!Seq(":avet", ":aevt").contains(index))
       throw new IllegalArgumentException(ErrorMsg.indexPull)
 
     catchAnomaly {
-      val reverse_ = if (reverse) ":reverse true" else ""
-      val argsMap  = read(
-        s"""{
-           |:index $index
-           |:selector $selector
-           |:start $start
-           |$reverse_
-           |${timeoutOpt(timeout)}
-           |${offsetOpt(offset)}
-           |${limitOpt(limit)}
-           |}""".stripMargin
-      )
-      fn("index-pull").invoke(datomicDb, argsMap)
+      val argsMap = ArgMap(8)
+        .put(Kw.index, kw(index))
+        .put(Kw.selector, read(selector))
+        .put(Kw.start, read(start))
+      if (reverse)
+        argsMap.put(Kw.reverse, java.lang.Boolean.TRUE)
+      argsMap.timeout(timeout).offset(offset).limit(limit).chunk(chunk)
+      api.indexPull.invoke(datomicDb, argsMap.build)
     }
   }
 
@@ -272,19 +204,19 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     end: Option[Any] = None,
     timeout: Int = 0,
     offset: Int = 0,
-    limit: Int = 1000
+    limit: Int = 1000,
+    chunk: Int = 0
   ): AnyRef = catchAnomaly {
-    val argsMap = read(
-      s"""{
-         |:attrid $attrId
-         |${anyOpt("start", start)}
-         |${anyOpt("end", end)}
-         |${timeoutOpt(timeout)}
-         |${offsetOpt(offset)}
-         |${limitOpt(limit)}
-         |}""".stripMargin
-    )
-    fn("index-range").invoke(datomicDb, argsMap)
+    val argsMap = ArgMap(7)
+      .put(Kw.attrid, kw(attrId))
+      .putOpt(Kw.start, start)
+      .putOpt(Kw.end, end)
+      .timeout(timeout)
+      .offset(offset)
+      .limit(limit)
+      .chunk(chunk)
+      .build
+    api.indexRange.invoke(datomicDb, argsMap)
   }
 
 
@@ -294,14 +226,8 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     offset: Int = 0,
     limit: Int = 1000
   ): AnyRef = catchAnomaly {
-    val argsMap = read(
-      s"""{
-         |${timeoutOpt(timeout)}
-         |${offsetOpt(offset)}
-         |${limitOpt(limit)}
-         |}""".stripMargin
-    )
-    fn("list-databases").invoke(datomicClient, argsMap)
+    val argsMap = ArgMap(3).timeout(timeout).offset(offset).limit(limit).build
+    api.listDatabases.invoke(datomicClient, argsMap)
   }
 
 
@@ -314,42 +240,40 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     limit: Int = 1000
   ): AnyRef = catchAnomaly {
     val eid     = eid0 match {
-      case l: jList[_] => edn(l)
-      case number      => number
+      case s: String => kw(s)
+      case lookup    => value(lookup)
     }
-    val argsMap = read(
-      s"""{
-         |:selector $selector
-         |:eid $eid
-         |${timeoutOpt(timeout)}
-         |${offsetOpt(offset)}
-         |${limitOpt(limit)}
-         |}""".stripMargin
-    )
-    fn("pull").invoke(datomicDb, argsMap)
+    val argsMap = ArgMap(5)
+      .put(Kw.selector, read(selector))
+      .put(Kw.eid, eid)
+      .timeout(timeout)
+      .offset(offset)
+      .limit(limit)
+      .build
+    api.pull.invoke(datomicDb, argsMap)
   }
 
 
   def q(map: jMap[_, _]): AnyRef = catchAnomaly {
-    fn("q").invoke(PersistentHashMap.create(map))
+    api.q.invoke(PersistentHashMap.create(map))
   }
 
 
   def qseq(map: jMap[_, _]): AnyRef = catchAnomaly {
-    fn("qseq").invoke(PersistentHashMap.create(map))
+    api.qseq.invoke(PersistentHashMap.create(map))
   }
 
 
   def since(datomicDb: AnyRef, t: Long): AnyRef = catchAnomaly {
-    fn("since").invoke(datomicDb, t)
+    api.since.invoke(datomicDb, t)
   }
   def since(datomicDb: AnyRef, d: Date): AnyRef = catchAnomaly {
-    fn("since").invoke(datomicDb, d)
+    api.since.invoke(datomicDb, d)
   }
 
 
   def sync(datomicConn: AnyRef, t: Long): AnyRef = catchAnomaly {
-    fn("sync").invoke(datomicConn, t)
+    api.sync.invoke(datomicConn, t)
   }
 
 
@@ -357,11 +281,17 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     datomicConn: AnyRef,
     stmts: jList[_]
   ): AnyRef = catchAnomaly {
-    val txData  = edn(stmts)
-    // clojure.tools.reader/read-string needed to interpret uri representation.
-    val argsMap = readString(s"{:tx-data $txData}")
-    //    val argsMap = read(s"{:tx-data $txData}")
-    fn("transact").invoke(datomicConn, argsMap)
+    val argsMap = ArgMap(1).put(Kw.txData, CljData.txData(stmts)).build
+    api.transact.invoke(datomicConn, argsMap)
+  }
+
+  // Tx data already as clojure data, like a bound TxTemplate
+  def transactTxData(
+    datomicConn: AnyRef,
+    txData: IPersistentVector
+  ): AnyRef = catchAnomaly {
+    val argsMap = ArgMap(1).put(Kw.txData, txData).build
+    api.transact.invoke(datomicConn, argsMap)
   }
 
 
@@ -373,15 +303,14 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     offset: Int = 0,
     limit: Int = 1000
   ): AnyRef = catchAnomaly {
-    val argsMap = read(
-      s"""{
-         |${timePointOpt("start", start)}
-         |${timePointOpt("end", end)}
-         |${timeoutOpt(timeout)}
-         |${offsetOpt(offset)}
-         |${limitOpt(limit)}
-         |}""".stripMargin)
-    fn("tx-range").invoke(datomicConn, argsMap)
+    val argsMap = ArgMap(5)
+      .timePoint(Kw.start, start)
+      .timePoint(Kw.end, end)
+      .timeout(timeout)
+      .offset(offset)
+      .limit(limit)
+      .build
+    api.txRange.invoke(datomicConn, argsMap)
   }
 
 
@@ -389,14 +318,13 @@ trait Invoke extends ClojureBridge with AnomalyWrapper {
     withDb: AnyRef,
     stmts: jList[_]
   ): AnyRef = catchAnomaly {
-    val txData  = edn(stmts)
-    val argsMap = readString(s"{:tx-data $txData}")
-    fn("with").invoke(withDb, argsMap)
+    val argsMap = ArgMap(1).put(Kw.txData, CljData.txData(stmts)).build
+    api.`with`.invoke(withDb, argsMap)
   }
 
   def withDb(
     datomicConn: AnyRef
   ): AnyRef = catchAnomaly {
-    fn("with-db").invoke(datomicConn)
+    api.withDb.invoke(datomicConn)
   }
 }
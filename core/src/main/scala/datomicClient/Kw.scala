@@ -0,0 +1,87 @@
+package datomicClient
+
+import clojure.lang.Keyword
+
+
+/** Keywords interned once and shared by the Java and Scala facades.
+ *
+ * Lookups in raw Clojure data go through these constants instead of reading
+ * the keyword from a String on each access.
+ */
+object Kw {
+
+  private def kw(nsname: String): Keyword = Keyword.intern(nsname)
+
+  // Client arguments
+  val serverType       : Keyword = kw("server-type")
+  val region           : Keyword = kw("region")
+  val system           : Keyword = kw("system")
+  val endpoint         : Keyword = kw("endpoint")
+  val credsProvider    : Keyword = kw("creds-provider")
+  val credsProfile     : Keyword = kw("creds-profile")
+  val proxyPort        : Keyword = kw("proxy-port")
+  val storageDir       : Keyword = kw("storage-dir")
+  val accessKey        : Keyword = kw("access-key")
+  val secret           : Keyword = kw("secret")
+  val validateHostnames: Keyword = kw("validate-hostnames")
+  val cloud            : Keyword = kw("cloud")
+  val devLocal         : Keyword = kw("dev-local")
+  val peerServer       : Keyword = kw("peer-server")
+
+  // Api arguments
+  val dbName       : Keyword = kw("db-name")
+  val index        : Keyword = kw("index")
+  val components   : Keyword = kw("components")
+  val selector     : Keyword = kw("selector")
+  val start        : Keyword = kw("start")
+  val end          : Keyword = kw("end")
+  val reverse      : Keyword = kw("reverse")
+  val attrid       : Keyword = kw("attrid")
+  val eid          : Keyword = kw("eid")
+  val timeout      : Keyword = kw("timeout")
+  val offset       : Keyword = kw("offset")
+  val limit        : Keyword = kw("limit")
+  val chunk        : Keyword = kw("chunk")
+  val txData       : Keyword = kw("tx-data")
+  val query        : Keyword = kw("query")
+  val args         : Keyword = kw("args")
+  val action       : Keyword = kw("action")
+  val upgradeSchema: Keyword = kw("upgrade-schema")
+
+  // Datom
+  val e    : Keyword = kw("e")
+  val a    : Keyword = kw("a")
+  val v    : Keyword = kw("v")
+  val tx   : Keyword = kw("tx")
+  val added: Keyword = kw("added")
+
+  // Tx data
+  val dbId     : Keyword = kw("db/id")
+  val dbAdd    : Keyword = kw("db/add")
+  val dbRetract: Keyword = kw("db/retract")
+  val valueType: Keyword = kw("db/valueType")
+
+  // Tx report and tx-range
+  val dbBefore : Keyword = kw("db-before")
+  val dbAfter  : Keyword = kw("db-after")
+  val tempids  : Keyword = kw("tempids")
+  val t        : Keyword = kw("t")
+  val data     : Keyword = kw("data")
+  val txInstant: Keyword = kw("db/txInstant")
+
+  // Db stats
+  val datoms: Keyword = kw("datoms")
+  val attrs : Keyword = kw("attrs")
+
+  // Db lookup
+  val id       : Keyword = kw("id")
+  val asOf     : Keyword = kw("as-of")
+  val since    : Keyword = kw("since")
+  val history  : Keyword = kw("history")
+  val isHistory: Keyword = kw("history?")
+
+  // Anomalies
+  val anomalyCategory: Keyword = kw("cognitect.anomalies/category")
+  val anomalyMessage : Keyword = kw("cognitect.anomalies/message")
+  val httpResult     : Keyword = kw("http-result")
+}
@@ -0,0 +1,209 @@
+package datomicClient
+
+import java.lang.{Iterable => jIterable}
+import java.util.concurrent.{CompletableFuture, CompletionException, Executor}
+import java.util.function.Consumer
+import java.util.{ArrayList, Spliterator, Iterator => jIterator, List => jList}
+import clojure.lang.{ILookup, Util}
+
+
+/** Index scans split into key partitions that are fetched concurrently.
+ *
+ * The returned Spliterator splits on partition boundaries so that each
+ * partition of a `parallel()` stream is consumed by its own worker while its
+ * pages are prefetched on `executor`. With `ordered` the Spliterator reports
+ * ORDERED and splits into prefixes, so ordered stream operations merge the
+ * partitions back in index order.
+ */
+object PartitionedScan {
+
+  /** Datoms of an index where each partition is given by its components.
+   *
+   * The client api can't seek `datoms` to a range of keys, so partitions are
+   * component prefixes, like one attribute per partition of `:aevt`.
+   */
+  def datoms[T](
+    datomicDb: AnyRef,
+    index: String,
+    partitions: jList[jList[_]],
+    timeout: Int,
+    pageSize: Int,
+    ordered: Boolean,
+    executor: Executor,
+    decode: ILookup => T
+  ): Spliterator[T] = {
+    val parts = new Array[() => jIterator[ILookup]](partitions.size)
+    (0 until partitions.size).foreach { i =>
+      parts(i) = () => Prefetcher.datoms[ILookup](
+        datomicDb, index, partitions.get(i), timeout, pageSize,
+        executor, 2, 2 * pageSize
+      )
+    }
+    new PartitionSpliterator(parts, 0, parts.length, ordered, decode)
+  }
+
+  /** Datoms of an attribute range split into value ranges of about `stride`
+   * datoms each.
+   */
+  def indexRange[T](
+    datomicDb: AnyRef,
+    attrId: String,
+    start: Option[Any],
+    end: Option[Any],
+    stride: Int,
+    timeout: Int,
+    pageSize: Int,
+    ordered: Boolean,
+    executor: Executor,
+    decode: ILookup => T
+  ): Spliterator[T] = {
+    val (bounds, sizes) = sample(datomicDb, attrId, start, end, stride, timeout)
+    val parts           = new Array[() => jIterator[ILookup]](bounds.size + 1)
+    (0 to bounds.size).foreach { i =>
+      val from  = if (i == 0) start else Some(bounds.get(i - 1))
+      val until = if (i == bounds.size) end else Some(bounds.get(i))
+      parts(i) = () => Prefetcher.indexRange[ILookup](
+        datomicDb, attrId, from, until, timeout, pageSize,
+        executor, 2, 2 * pageSize
+      )
+    }
+    new PartitionSpliterator(parts, 0, parts.length, ordered, decode, sizes)
+  }
+
+  /** Distinct values sampled every `stride` datoms of an attribute range.
+   *
+   * Samples are `:limit 1` reads at offsets `stride`, `2 * stride`, ... from
+   * `start`. They are requested concurrently in waves of `sampleWidth` until
+   * a wave reaches the end of the range, so the round trips grow with the
+   * number of waves rather than the number of samples. Consecutive samples
+   * of a value shared by more datoms than `stride` are collapsed so that the
+   * values are strictly increasing and can be used as exclusive range ends.
+   */
+  def boundaries(
+    datomicDb: AnyRef,
+    attrId: String,
+    start: Option[Any],
+    end: Option[Any],
+    stride: Int,
+    timeout: Int
+  ): jList[AnyRef] = sample(datomicDb, attrId, start, end, stride, timeout)._1
+
+
+  // Concurrent sample requests per wave
+  private val sampleWidth = 16
+
+  // Boundaries with the estimated number of datoms of each partition, that is
+  // `stride` for each sample collapsed into the boundary starting it.
+  private def sample(
+    datomicDb: AnyRef,
+    attrId: String,
+    start: Option[Any],
+    end: Option[Any],
+    stride: Int,
+    timeout: Int
+  ): (jList[AnyRef], Array[Long]) = {
+    if (stride < 1)
+      throw new IllegalArgumentException(ErrorMsg.zeroNeg)
+    val bounds = new ArrayList[AnyRef]()
+    val counts = new ArrayList[java.lang.Long]()
+    counts.add(stride.toLong)
+    var k      = 1L
+    var more   = true
+    while (more) {
+      // Offsets beyond Int range are left to the last partition
+      val offsets = (k until k + sampleWidth).map(_ * stride).takeWhile(_ <= Int.MaxValue)
+      val wave    = offsets.map(offset =>
+        CoreAsync.takeAsync(
+          InvokeAsync.indexRange(datomicDb, attrId, start, end, timeout, offset.toInt, 1)
+        )
+      )
+      wave.foreach { future =>
+        val v = if (more) firstValue(future) else null
+        if (v == null) {
+          more = false
+        } else if (!bounds.isEmpty && Util.equiv(bounds.get(bounds.size - 1), v)) {
+          counts.set(counts.size - 1, counts.get(counts.size - 1) + stride)
+        } else {
+          bounds.add(v)
+          counts.add(stride.toLong)
+        }
+      }
+      more = more && offsets.size == sampleWidth
+      k += sampleWidth
+    }
+    val sizes = new Array[Long](counts.size)
+    (0 until counts.size).foreach(i => sizes(i) = counts.get(i))
+    (bounds, sizes)
+  }
+
+  // Value of the sampled datom, or null past the end of the range
+  private def firstValue(future: CompletableFuture[AnyRef]): AnyRef = {
+    val chunk = try {
+      future.join()
+    } catch {
+      case e: CompletionException => throw e.getCause
+    }
+    chunk match {
+      case datoms: jIterable[_] =>
+        val it = datoms.iterator
+        if (it.hasNext) it.next.asInstanceOf[ILookup].valAt(Kw.v) else null
+      case _                    => null
+    }
+  }
+
+
+  // Splits only between partitions not yet started
+  private class PartitionSpliterator[T](
+    partitions: Array[() => jIterator[ILookup]],
+    private var from: Int,
+    to: Int,
+    ordered: Boolean,
+    decode: ILookup => T,
+    sizes: Array[Long] = null // Estimated datoms per partition if sampled
+  ) extends Spliterator[T] {
+
+    private var current: jIterator[ILookup] = null
+    private var left   : Long               = 0L // Estimate left in current
+
+    override def tryAdvance(action: Consumer[_ >: T]): Boolean = {
+      while ((current == null || !current.hasNext) && from < to) {
+        current = partitions(from)()
+        left = if (sizes == null) 0L else sizes(from)
+        from += 1
+      }
+      if (current != null && current.hasNext) {
+        if (left > 0)
+          left -= 1
+        action.accept(decode(current.next))
+        true
+      } else {
+        false
+      }
+    }
+
+    override def trySplit(): Spliterator[T] = {
+      if (current != null || to - from < 2) {
+        null
+      } else {
+        val mid    = (from + to) >>> 1
+        val prefix = new PartitionSpliterator(partitions, from, mid, ordered, decode, sizes)
+        from = mid
+        prefix
+      }
+    }
+
+    // Unknown for datoms partitions that are not sampled
+    override def estimateSize(): Long = if (sizes == null) {
+      Long.MaxValue
+    } else {
+      var size = left
+      (from until to).foreach(i => size += sizes(i))
+      size
+    }
+
+    override def characteristics(): Int = {
+      val base = Spliterator.NONNULL | Spliterator.IMMUTABLE
+      if (ordered) base | Spliterator.ORDERED else base
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package datomicClient
+
+import java.util.concurrent.{Executor, ExecutorService, Executors, ThreadFactory}
+import java.util.{ArrayDeque, Collection => jCollection, Collections, Iterator => jIterator, List => jList}
+import clojure.lang.{IType, PersistentArrayMap}
+import datomicClient.anomaly.AnomalyWrapper
+
+
+/** Iterator over pages fetched ahead of the consumer on a background executor.
+ *
+ * While a page is consumed, up to `depth` following pages are fetched. No
+ * further page is requested while the buffered pages hold `maxBuffered`
+ * elements or more, so memory is capped at about `maxBuffered` elements plus
+ * the page being consumed and one page in flight.
+ *
+ * A consumer stopping early closes the prefetcher. That drops the buffered
+ * pages, stops fetching and releases the page source, like closing the
+ * core.async channel that a fetch may be waiting on.
+ *
+ * @param fetchPage   returns the next page or null when there are no more pages
+ * @param executor    runs the page fetches
+ * @param depth       max number of pages fetched ahead
+ * @param maxBuffered max number of elements of pages fetched ahead
+ * @param release     releases the page source when closed
+ * @tparam T element type
+ */
+final class Prefetcher[T](
+  fetchPage: () => jCollection[_],
+  executor: Executor,
+  depth: Int,
+  maxBuffered: Int,
+  release: () => Unit = () => ()
+) extends jIterator[T] with AutoCloseable {
+
+  if (depth < 1 || maxBuffered < 1)
+    throw new IllegalArgumentException(ErrorMsg.zeroNeg)
+
+  private val ready    = new ArrayDeque[jCollection[_]](depth)
+  private var buffered = 0
+  private var inFlight = false
+  private var done     = false
+  private var failure  = Option.empty[Throwable]
+  private var closed   = false
+  private var current: jIterator[_] = Collections.emptyIterator()
+
+  synchronized(fetchAhead())
+
+  // Call while holding the lock
+  private def fetchAhead(): Unit = {
+    if (!inFlight && !done && !closed && failure.isEmpty
+      && ready.size < depth && buffered < maxBuffered) {
+      inFlight = true
+      try {
+        executor.execute(() => fetch())
+      } catch {
+        // Rejected by a saturated or shut down executor
+        case e: Throwable =>
+          inFlight = false
+          failure = Some(e)
+          notifyAll()
+      }
+    }
+  }
+
+  private def fetch(): Unit = {
+    val page = try {
+      Right(fetchPage())
+    } catch {
+      case e: Throwable => Left(e)
+    }
+    synchronized {
+      inFlight = false
+      page match {
+        case _ if closed => // dropped
+        case Right(null) => done = true
+        case Right(p)    =>
+          ready.add(p)
+          buffered += p.size
+        case Left(e)     => failure = Some(e)
+      }
+      fetchAhead()
+      notifyAll()
+    }
+  }
+
+  override def hasNext: Boolean = {
+    if (current.hasNext) {
+      true
+    } else {
+      synchronized {
+        while (ready.isEmpty && !done && !closed && failure.isEmpty) {
+          fetchAhead()
+          wait()
+        }
+        if (!ready.isEmpty) {
+          val page = ready.poll()
+          buffered -= page.size
+          current = page.iterator
+          fetchAhead()
+          hasNext
+        } else {
+          if (!closed)
+            failure.foreach(e => throw e)
+          false
+        }
+      }
+    }
+  }
+
+  override def next(): T = {
+    if (!hasNext)
+      throw new NoSuchElementException()
+    current.next.asInstanceOf[T]
+  }
+
+  /** Stops fetching, drops the buffered pages and releases the page source. */
+  override def close(): Unit = {
+    val first = synchronized {
+      val first = !closed
+      closed = true
+      ready.clear()
+      buffered = 0
+      current = Collections.emptyIterator()
+      notifyAll()
+      first
+    }
+    if (first)
+      release()
+  }
+}
+
+
+object Prefetcher extends AnomalyWrapper {
+
+  /** Default executor with daemon threads for page fetches. */
+  lazy val defaultExecutor: ExecutorService = Executors.newCachedThreadPool(
+    new ThreadFactory {
+      override def newThread(r: Runnable): Thread = {
+        val t = new Thread(r, "datomic-client-prefetch")
+        t.setDaemon(true)
+        t
+      }
+    }
+  )
+
+  /** Pages as the chunks taken from an async channel. */
+  def chunks[T](
+    channel: AnyRef,
+    executor: Executor,
+    depth: Int,
+    maxBuffered: Int
+  ): Prefetcher[T] = new Prefetcher[T](
+    () => take(channel), executor, depth, maxBuffered, () => close(channel)
+  )
+
+  // Closing the channel ends a pending take and stops the producer
+  private def close(channel: AnyRef): Unit = channel match {
+    case ch: IType => CoreAsync.close.invoke(ch)
+    case _         =>
+  }
+
+  private def take(channel: AnyRef): jCollection[_] = channel match {
+    case ch: IType =>
+      CoreAsync.<!!.invoke(ch) match {
+        case null => null
+
+        case anomalyMap: PersistentArrayMap
+          if anomalyMap.containsKey(Kw.anomalyCategory) =>
+          throw anomaly(anomalyMap)
+
+        case chunk => chunk.asInstanceOf[jCollection[_]]
+      }
+
+    // Invoke returned a non-channel value
+    case other => throw new IllegalArgumentException(
+      "Expected a core.async channel but got " + other
+    )
+  }
+
+
+  // Page sources over InvokeAsync -------------------------------------------
+
+  def datoms[T](
+    datomicDb: AnyRef,
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    pageSize: Int,
+    executor: Executor,
+    depth: Int,
+    maxBuffered: Int
+  ): Prefetcher[T] = chunks(
+    InvokeAsync.datoms(datomicDb, index, components, timeout, 0, -1, pageSize),
+    executor, depth, maxBuffered
+  )
+
+  def indexRange[T](
+    datomicDb: AnyRef,
+    attrId: String,
+    start: Option[Any],
+    end: Option[Any],
+    timeout: Int,
+    pageSize: Int,
+    executor: Executor,
+    depth: Int,
+    maxBuffered: Int
+  ): Prefetcher[T] = chunks(
+    InvokeAsync.indexRange(datomicDb, attrId, start, end, timeout, 0, -1, pageSize),
+    executor, depth, maxBuffered
+  )
+
+  def indexPull[T](
+    datomicDb: AnyRef,
+    index: String,
+    selector: String,
+    start: String,
+    reverse: Boolean,
+    timeout: Int,
+    pageSize: Int,
+    executor: Executor,
+    depth: Int,
+    maxBuffered: Int
+  ): Prefetcher[T] = chunks(
+    InvokeAsync.indexPull(datomicDb, index, selector, start, reverse, timeout, 0, -1, pageSize),
+    executor, depth, maxBuffered
+  )
+}
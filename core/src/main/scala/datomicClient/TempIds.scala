@@ -0,0 +1,103 @@
+package datomicClient
+
+import java.util.function.ObjLongConsumer
+import java.util.{NoSuchElementException, Map => jMap}
+
+
+/** Temp ids of a transaction and their entity ids without boxing.
+ *
+ * String keys and primitive long values are kept in two arrays with open
+ * addressing and linear probing at a load factor of at most 1/2. Built once
+ * from the tx report and read-only after.
+ */
+final class TempIds private(keys: Array[String], eids: Array[Long], val size: Int) {
+
+  private val mask = keys.length - 1
+
+  private def slot(tempId: String): Int = {
+    var i = TempIds.spread(tempId.hashCode) & mask
+    while (keys(i) != null && keys(i) != tempId)
+      i = (i + 1) & mask
+    i
+  }
+
+  def isEmpty: Boolean = size == 0
+
+  def contains(tempId: String): Boolean = keys(slot(tempId)) != null
+
+  /** Entity id of `tempId`. */
+  def get(tempId: String): Long = {
+    val i = slot(tempId)
+    if (keys(i) == null)
+      throw new NoSuchElementException(ErrorMsg.tempIdNotFound(tempId))
+    eids(i)
+  }
+
+  def getOrElse(tempId: String, default: Long): Long = {
+    val i = slot(tempId)
+    if (keys(i) == null) default else eids(i)
+  }
+
+  /** Entity ids of `tempIds` in the same order. */
+  def resolve(tempIds: Array[String]): Array[Long] = {
+    val resolved = new Array[Long](tempIds.length)
+    var i        = 0
+    while (i < tempIds.length) {
+      resolved(i) = get(tempIds(i))
+      i += 1
+    }
+    resolved
+  }
+
+  /** Entity ids of `tempIds` with `missing` for unknown temp ids. */
+  def resolve(tempIds: Array[String], missing: Long): Array[Long] = {
+    val resolved = new Array[Long](tempIds.length)
+    var i        = 0
+    while (i < tempIds.length) {
+      resolved(i) = getOrElse(tempIds(i), missing)
+      i += 1
+    }
+    resolved
+  }
+
+  def forEach(action: ObjLongConsumer[String]): Unit = {
+    var i = 0
+    while (i < keys.length) {
+      if (keys(i) != null)
+        action.accept(keys(i), eids(i))
+      i += 1
+    }
+  }
+}
+
+
+object TempIds {
+
+  val empty: TempIds = new TempIds(new Array[String](1), new Array[Long](1), 0)
+
+  /** Compact copy of the raw tempids map of a tx report. */
+  def apply(rawTempIds: jMap[_, _]): TempIds = {
+    if (rawTempIds == null || rawTempIds.isEmpty) {
+      empty
+    } else {
+      val capacity = Integer.highestOneBit(rawTempIds.size * 2 - 1) << 1
+      val keys     = new Array[String](capacity)
+      val eids     = new Array[Long](capacity)
+      val mask     = capacity - 1
+      val it       = rawTempIds.entrySet.iterator
+      while (it.hasNext) {
+        val entry  = it.next()
+        val tempId = entry.getKey.toString
+        var i      = spread(tempId.hashCode) & mask
+        while (keys(i) != null)
+          i = (i + 1) & mask
+        keys(i) = tempId
+        eids(i) = entry.getValue.asInstanceOf[Number].longValue
+      }
+      new TempIds(keys, eids, rawTempIds.size)
+    }
+  }
+
+  // Spreads the high bits of String hash codes to the masked low bits
+  private def spread(h: Int): Int = h ^ (h >>> 16)
+}
@@ -0,0 +1,38 @@
+package datomicClient
+
+import java.util.{Date, List => jList, Map => jMap}
+import clojure.lang.ILookup
+
+
+/** Basis fields of a raw tx report read without Db wrappers or datom streams.
+ *
+ * The first datom of the tx data is the tx datom asserting `:db/txInstant`
+ * of the transaction entity.
+ */
+object TxReportFields {
+
+  /** T of the database value before the transaction. */
+  def basisT(rawTxReport: jMap[_, _]): Long = dbT(rawTxReport.get(Kw.dbBefore))
+
+  /** T of the database value after the transaction. */
+  def t(rawTxReport: jMap[_, _]): Long = dbT(rawTxReport.get(Kw.dbAfter))
+
+  def tx(rawTxReport: jMap[_, _]): Long =
+    txDatom(rawTxReport).valAt(Kw.tx).asInstanceOf[Number].longValue
+
+  def txInst(rawTxReport: jMap[_, _]): Date =
+    txDatom(rawTxReport).valAt(Kw.v).asInstanceOf[Date]
+
+  /** Raw tx datom, the first datom of the tx data. */
+  def txDatom(rawTxReport: jMap[_, _]): ILookup = rawTxReport.get(Kw.txData) match {
+    case list: jList[_]                  => list.get(0).asInstanceOf[ILookup]
+    case iterable: java.lang.Iterable[_] => iterable.iterator.next.asInstanceOf[ILookup]
+  }
+
+
+  // Same as DbLookup.t without wrapping the raw db
+  private def dbT(rawDb: Any): Long = rawDb.asInstanceOf[ILookup].valAt(Kw.t, null) match {
+    case t: Number => t.longValue
+    case _         => 0L
+  }
+}
@@ -0,0 +1,160 @@
+package datomicClient
+
+import java.util.{Arrays, List => jList, Map => jMap, Set => jSet}
+import clojure.lang.{EdnReader, IPersistentList, IPersistentMap, IPersistentSet, IPersistentVector, LazilyPersistentVector, PersistentArrayMap, PersistentHashMap, PersistentHashSet, PersistentList, Symbol}
+import scala.annotation.varargs
+import scala.util.matching.Regex
+
+
+/** Tx data compiled once to clojure data and bound to values many times.
+ *
+ * Placeholders are the symbol `?` in values of entity maps and in vectors,
+ * lists and sets. They are bound in the order they appear in the EDN:
+ * {{{
+ * TxTemplate tx = TxTemplate.of("[{:order/id ? :order/status ? :order/ts ?}]");
+ * conn.transact(tx, 42L, Keyword.intern("order.status", "paid"), new Date());
+ * }}}
+ * Values are bound as data and not read as EDN, so Strings stay Strings.
+ * Keywords like enum idents have to be bound as `clojure.lang.Keyword`s.
+ * Placeholders as map keys are rejected when compiling.
+ *
+ * Keywords and constant parts are read once and shared by all bindings.
+ * Binding copies the backing arrays of the maps and vectors that contain
+ * placeholders, fills in the values and wraps the arrays without further
+ * conversion or EDN printing.
+ */
+final class TxTemplate private(root: TxTemplate.Node, val arity: Int) {
+
+  /** Tx data with the placeholders bound to `values`. */
+  @varargs
+  def bind(values: Any*): IPersistentVector = {
+    if (values.size != arity)
+      throw new IllegalArgumentException(ErrorMsg.templateArity(arity, values.size))
+    root.bind(values.map(CljData.value).toArray).asInstanceOf[IPersistentVector]
+  }
+}
+
+
+object TxTemplate {
+
+  // String literals or a standalone `?`
+  private val token = """"(?:\\.|[^"\\])*"|(?<=[\s\[{(,])\?(?=[\s\]}),])""".r
+
+  private val slotPrefix = "?__slot"
+
+  def apply(edn: String): TxTemplate = {
+    // Number the placeholders in textual order since hash maps read from
+    // EDN don't keep the order of their entries
+    var arity    = 0
+    val numbered = token.replaceAllIn(edn, m =>
+      if (m.matched.startsWith("\"")) {
+        Regex.quoteReplacement(m.matched)
+      } else {
+        arity += 1
+        Regex.quoteReplacement(slotPrefix + (arity - 1))
+      }
+    )
+    EdnReader.readString(numbered, PersistentArrayMap.EMPTY) match {
+      case txData: IPersistentVector => new TxTemplate(compile(txData), arity)
+
+      case other => throw new IllegalArgumentException(
+        "Expected a vector of statements but got " + other
+      )
+    }
+  }
+
+  def of(edn: String): TxTemplate = apply(edn)
+
+
+  private def compile(data: AnyRef): Node = data match {
+    case sym: Symbol if isSlot(sym) =>
+      Slot(sym.getName.substring(slotPrefix.length).toInt)
+
+    case map: IPersistentMap =>
+      val kvs = new Array[AnyRef](map.count * 2)
+      var i   = 0
+      map.asInstanceOf[jMap[AnyRef, AnyRef]].forEach { (k, v) =>
+        if (isSlot(k))
+          throw new IllegalArgumentException(ErrorMsg.templateKey)
+        kvs(i) = k
+        kvs(i + 1) = v
+        i += 2
+      }
+      structure(map, kvs, (1 until kvs.length by 2).toArray) { arr =>
+        if (arr.length <= 16) new PersistentArrayMap(arr) else PersistentHashMap.create(arr: _*)
+      }
+
+    case vector: IPersistentVector =>
+      val items = vector.asInstanceOf[jList[AnyRef]].toArray(new Array[AnyRef](vector.count))
+      structure(vector, items, items.indices.toArray) { arr =>
+        LazilyPersistentVector.createOwning(arr: _*)
+      }
+
+    case list: IPersistentList =>
+      val items = list.asInstanceOf[jList[AnyRef]].toArray(new Array[AnyRef](list.count))
+      structure(list, items, items.indices.toArray) { arr =>
+        PersistentList.create(Arrays.asList(arr: _*))
+      }
+
+    case set: IPersistentSet =>
+      val items = set.asInstanceOf[jSet[AnyRef]].toArray(new Array[AnyRef](set.count))
+      structure(set, items, items.indices.toArray) { arr =>
+        PersistentHashSet.create(arr: _*)
+      }
+
+    case constant => Const(constant)
+  }
+
+  private def isSlot(data: AnyRef): Boolean = data match {
+    case sym: Symbol => sym.getNamespace == null && sym.getName.startsWith(slotPrefix)
+    case _           => false
+  }
+
+  // Node of a collection with the positions of nested placeholders
+  private def structure(
+    data: AnyRef,
+    template: Array[AnyRef],
+    positions: Array[Int]
+  )(build: Array[AnyRef] => AnyRef): Node = {
+    val holes = positions.flatMap { pos =>
+      compile(template(pos)) match {
+        case Const(_) => None
+        case node     => Some(pos -> node)
+      }
+    }
+    if (holes.isEmpty)
+      Const(data)
+    else
+      Structure(template, holes.map(_._1), holes.map(_._2), build)
+  }
+
+
+  private[datomicClient] sealed trait Node {
+    def bind(values: Array[AnyRef]): AnyRef
+  }
+
+  private case class Const(value: AnyRef) extends Node {
+    def bind(values: Array[AnyRef]): AnyRef = value
+  }
+
+  private case class Slot(index: Int) extends Node {
+    def bind(values: Array[AnyRef]): AnyRef = values(index)
+  }
+
+  private case class Structure(
+    template: Array[AnyRef],
+    positions: Array[Int],
+    children: Array[Node],
+    build: Array[AnyRef] => AnyRef
+  ) extends Node {
+    def bind(values: Array[AnyRef]): AnyRef = {
+      val arr = template.clone()
+      var i   = 0
+      while (i < positions.length) {
+        arr(positions(i)) = children(i).bind(values)
+        i += 1
+      }
+      build(arr)
+    }
+  }
+}
@@ -3,7 +3,8 @@ package datomicClient.anomaly
 import java.util
 import java.util.{Map => jMap}
 import clojure.lang.{ExceptionInfo, Keyword, PersistentArrayMap}
-import datomic.Util.{map, read}
+import datomic.Util.map
+import datomicClient.Kw
 
 trait AnomalyWrapper {
 
@@ -19,7 +20,7 @@ trait AnomalyWrapper {
 
   def anomaly(e: ExceptionInfo): CognitectAnomaly = {
     val cat = {
-      val key = read(":cognitect.anomalies/category")
+      val key = Kw.anomalyCategory
       if (e.data.containsKey(key))
         e.data.entryAt(key).getValue.asInstanceOf[Keyword].getName
       else
@@ -27,7 +28,7 @@ trait AnomalyWrapper {
     }
 
     def msg: String = {
-      val key = read(":cognitect.anomalies/message")
+      val key = Kw.anomalyMessage
       if (e.data.containsKey(key))
         e.data.entryAt(key).getValue.toString
       else
@@ -38,7 +39,7 @@ trait AnomalyWrapper {
       case "forbidden"   => {
         val httpResult = new util.HashMap[String, Any]()
         e.data
-          .entryAt(read(":http-result"))
+          .entryAt(Kw.httpResult)
           .getValue.asInstanceOf[jMap[_, _]]
           .forEach {
           case (k: Keyword, v: jMap[_, _]) => httpResult.put(k.getName, v)
@@ -63,18 +64,18 @@ trait AnomalyWrapper {
 
   def anomaly(anomalyMap: PersistentArrayMap): CognitectAnomaly = {
     val cat: String = anomalyMap.get(
-      read(":cognitect.anomalies/category")
+      Kw.anomalyCategory
     ).asInstanceOf[Keyword].getName
 
     lazy val msg: String = anomalyMap.get(
-      read(":cognitect.anomalies/message")
+      Kw.anomalyMessage
     ).toString
 
     cat match {
       case "forbidden"   => {
         val httpResult = new util.HashMap[String, Any]()
         anomalyMap
-          .entryAt(read(":http-result"))
+          .entryAt(Kw.httpResult)
           .getValue.asInstanceOf[jMap[_, _]]
           .forEach {
             case (k: Keyword, v: jMap[_, _]) => httpResult.put(k.getName, v)
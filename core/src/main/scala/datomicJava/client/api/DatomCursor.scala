@@ -0,0 +1,79 @@
+package datomicJava.client.api
+
+import java.lang.{Iterable => jIterable}
+import java.util.{Collections, Iterator => jIterator}
+import clojure.lang.ILookup
+import datomicClient.Kw
+
+
+/** Flyweight view over raw datoms.
+ *
+ * `advance()` moves the view to the next datom and the accessors read the
+ * values of the underlying element so that no object is created per datom.
+ * Values are only valid until the next call to `advance()`.
+ */
+final class DatomCursor(rawDatoms: Any) {
+
+  private var it: jIterator[_] = DatomCursor.iterator(rawDatoms)
+  private var d : ILookup      = _
+
+  /** Point this cursor to other raw datoms. */
+  def reset(rawDatoms: Any): DatomCursor = {
+    it = DatomCursor.iterator(rawDatoms)
+    d = null
+    this
+  }
+
+  def advance(): Boolean = {
+    if (it.hasNext) {
+      d = it.next.asInstanceOf[ILookup]
+      true
+    } else {
+      d = null
+      false
+    }
+  }
+
+  def e: Long = d.valAt(Kw.e).asInstanceOf[Long]
+  def a: Any = d.valAt(Kw.a) // Keyword or Long
+  def v: Any = d.valAt(Kw.v)
+  def tx: Long = d.valAt(Kw.tx).asInstanceOf[Long]
+  def added: Boolean = d.valAt(Kw.added).asInstanceOf[Boolean]
+
+  /** Copy of current datom. */
+  def datom: Datom = Helper.getDatom(d)
+}
+
+object DatomCursor {
+  private[api] def iterator(raw: Any): jIterator[_] = raw match {
+    case iterable: jIterable[_] => iterable.iterator
+    case _                      => Collections.emptyIterator()
+  }
+}
+
+
+/** Flyweight view over the transactions of a tx range.
+ *
+ * The same `datoms` cursor is reset to the datoms of each transaction.
+ */
+final class TxRangeCursor(rawTxs: Any) {
+
+  private val it  : jIterator[_] = DatomCursor.iterator(rawTxs)
+  private var curT: Long         = 0L
+
+  val datoms: DatomCursor = new DatomCursor(null)
+
+  def advance(): Boolean = {
+    if (it.hasNext) {
+      val tx = it.next.asInstanceOf[ILookup]
+      curT = tx.valAt(Kw.t).asInstanceOf[Long]
+      datoms.reset(tx.valAt(Kw.data))
+      true
+    } else {
+      datoms.reset(null)
+      false
+    }
+  }
+
+  def t: Long = curT
+}
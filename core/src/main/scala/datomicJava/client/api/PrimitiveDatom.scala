@@ -0,0 +1,27 @@
+package datomicJava.client.api
+
+import java.util.Date
+
+
+/** Datom with unboxed entity, attribute and transaction ids.
+ *
+ * Attribute ids are entity ids of the db partition and fit in an Int.
+ * The value is kept as returned and can be read with the typed accessors.
+ */
+final case class PrimitiveDatom(
+  e: Long,
+  a: Int,
+  v: Any, // Any value type
+  tx: Long,
+  added: Boolean
+) {
+  def longValue: Long = v.asInstanceOf[java.lang.Number].longValue
+
+  def doubleValue: Double = v.asInstanceOf[java.lang.Number].doubleValue
+
+  def booleanValue: Boolean = v.asInstanceOf[java.lang.Boolean].booleanValue
+
+  def stringValue: String = v.asInstanceOf[String]
+
+  def instantValue: Date = v.asInstanceOf[Date]
+}
@@ -1,32 +1,53 @@
 package datomicJava.client.api.async
 
+import java.util.concurrent.{Executor, ForkJoinPool}
 import java.util.stream.{Stream => jStream}
 import java.util.{Date, Map => jMap}
-import datomic.Util._
-import datomicJava.client.api.Datom
+import datomicClient.{Deadline, Kw, TempIds, TxReportFields}
+import datomicJava.client.api.{Datom, DatomBatch, DatomCursor, PrimitiveDatom}
 import datomicJava.client.api.Helper._
 
 /** Facade to Datomic transaction report */
-case class AsyncTxReport(rawTxReport: jMap[_, _]) {
+case class AsyncTxReport(
+  rawTxReport: jMap[_, _],
+  executor: Executor = ForkJoinPool.commonPool(),
+  deadline: Option[Deadline] = None
+) {
 
   /** Get database value before transaction. */
-  lazy val dbBefore: AsyncDb = AsyncDb(rawTxReport.get(read(":db-before")).asInstanceOf[AnyRef])
+  lazy val dbBefore: AsyncDb =
+    AsyncDb(rawTxReport.get(Kw.dbBefore).asInstanceOf[AnyRef], None, executor, deadline)
 
   /** Get database value after transaction. */
-  lazy val dbAfter: AsyncDb = AsyncDb(rawTxReport.get(read(":db-after")).asInstanceOf[AnyRef])
+  lazy val dbAfter: AsyncDb =
+    AsyncDb(rawTxReport.get(Kw.dbAfter).asInstanceOf[AnyRef], None, executor, deadline)
 
   /** Get Array of transacted Datoms. */
-  def txData: jStream[Datom] = streamOfDatoms(rawTxReport.get(read(":tx-data")))
+  def txData: jStream[Datom] = streamOfDatoms(rawTxReport.get(Kw.txData))
+
+  /** Get Stream of transacted Datoms with unboxed ids. */
+  def txDataPrimitive: jStream[PrimitiveDatom] =
+    streamOfPrimitiveDatoms(rawTxReport.get(Kw.txData))
+
+  /** Get flyweight cursor over transacted Datoms. */
+  def txDataCursor: DatomCursor = new DatomCursor(rawTxReport.get(Kw.txData))
 
   /** Get map of temp ids and entity ids. */
   lazy val tempIds: jMap[Long, Long] =
-    rawTxReport.get(read(":tempids")).asInstanceOf[jMap[Long, Long]]
-
-  // Convenience accessors
-  lazy val txDatom: Datom = txData.iterator().next()
-  lazy val basisT : Long  = dbBefore.t
-  lazy val t      : Long  = dbAfter.t
-  lazy val tx     : Long  = txDatom.e
-  lazy val txInst : Date  = txDatom.v.asInstanceOf[Date]
+    rawTxReport.get(Kw.tempids).asInstanceOf[jMap[Long, Long]]
+
+  /** Get temp ids and entity ids with unboxed entity ids. */
+  lazy val tempIdsPrimitive: TempIds =
+    TempIds(rawTxReport.get(Kw.tempids).asInstanceOf[jMap[_, _]])
+
+  /** Get transacted Datoms decoded once into columns. */
+  lazy val txDataBatch: DatomBatch = datomBatch(rawTxReport.get(Kw.txData))
+
+  // Convenience accessors read from the raw report
+  lazy val txDatom: Datom = getDatom(TxReportFields.txDatom(rawTxReport))
+  lazy val basisT : Long  = TxReportFields.basisT(rawTxReport)
+  lazy val t      : Long  = TxReportFields.t(rawTxReport)
+  lazy val tx     : Long  = TxReportFields.tx(rawTxReport)
+  lazy val txInst : Date  = TxReportFields.txInst(rawTxReport)
 }
 
@@ -0,0 +1,178 @@
+package datomicJava.client.api.async
+
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicLong}
+import java.util.concurrent.{Executor, Flow, ScheduledFuture}
+import clojure.lang.{AFn, IType, PersistentArrayMap}
+import datomicClient.anomaly.{AnomalyWrapper, Interrupted}
+import datomicClient.{CoreAsync, Deadline, ErrorMsg, Kw}
+
+
+/** Publisher of all chunks of a core.async channel.
+ *
+ * A chunk is only taken from the channel when the subscriber has requested
+ * more, so at most one chunk is held on the client side. Chunks are taken
+ * with core.async `take!` callbacks, so no thread waits on the channel.
+ * Anomalies are signalled with `onError` and cancelling closes the channel.
+ * When the deadline expires, the channel is closed and an `Interrupted`
+ * anomaly signalled instead of further chunks.
+ *
+ * A channel can be drained only once, so the publisher accepts a single
+ * subscriber.
+ *
+ * @param channelOrInternal core.async channel or a single internal value
+ * @param transform         optional transformation of each chunk
+ * @param executor          signals the subscriber
+ * @param deadline          optional deadline of the whole subscription
+ * @tparam T chunk type
+ */
+class ChannelPublisher[T](
+  channelOrInternal: AnyRef,
+  transform: Option[AnyRef => T],
+  executor: Executor,
+  deadline: Option[Deadline] = None
+) extends Flow.Publisher[T] with AnomalyWrapper {
+
+  private val subscribed = new AtomicBoolean(false)
+
+  override def subscribe(subscriber: Flow.Subscriber[_ >: T]): Unit = {
+    if (subscriber == null)
+      throw new NullPointerException("Subscriber can't be null")
+
+    if (subscribed.compareAndSet(false, true)) {
+      val subscription = new ChunkSubscription(subscriber)
+      subscriber.onSubscribe(subscription)
+      subscription.startDeadline()
+    } else {
+      subscriber.onSubscribe(new Flow.Subscription {
+        override def request(n: Long): Unit = ()
+        override def cancel(): Unit = ()
+      })
+      subscriber.onError(
+        new IllegalStateException("Channel can only be subscribed to once.")
+      )
+    }
+  }
+
+
+  private class ChunkSubscription(subscriber: Flow.Subscriber[_ >: T])
+    extends Flow.Subscription {
+
+    private val demand   = new AtomicLong(0)
+    private val inFlight = new AtomicBoolean(false)
+
+    @volatile private var done    = false
+    @volatile private var expired = false
+    @volatile private var invalid = Option.empty[Long]
+
+    @volatile private var expiry = Option.empty[ScheduledFuture[_]]
+
+    // Started after onSubscribe so that expiry can't be signalled before it
+    def startDeadline(): Unit = {
+      if (!done) {
+        expiry = deadline.map(d => Deadline.schedule(d) {
+          expired = true
+          closeChannel()
+          pull()
+        })
+      }
+    }
+
+    override def request(n: Long): Unit = {
+      if (n <= 0) {
+        // Signalled by the delivery in flight or the next one (§3.9)
+        invalid = Some(n)
+        pull()
+      } else {
+        demand.getAndAccumulate(n, (cur, add) =>
+          if (cur + add < 0) Long.MaxValue else cur + add
+        )
+        pull()
+      }
+    }
+
+    override def cancel(): Unit = {
+      if (!done) {
+        done = true
+        closeChannel()
+      }
+      expiry.foreach(_.cancel(false))
+    }
+
+    // One take at a time. The next take is registered after the subscriber
+    // has been signalled, so signals are never concurrent. Once expired, a
+    // take of the closed channel signals the anomaly without further demand.
+    // An invalid request is signalled without taking.
+    private def pull(): Unit = {
+      if (!done && (demand.get > 0 || expired || invalid.nonEmpty) &&
+        inFlight.compareAndSet(false, true)) {
+        channelOrInternal match {
+          case _ if invalid.nonEmpty =>
+            executor.execute(() => deliver(null, last = true))
+
+          case channel: IType =>
+            // Callback always dispatched (on-caller? false) to avoid recursion
+            CoreAsync.take.invoke(channel, new AFn {
+              override def invoke(value: AnyRef): AnyRef = {
+                executor.execute(() => deliver(value, last = false))
+                null
+              }
+            }, java.lang.Boolean.FALSE)
+
+          // Internal types like TxReport etc. published as a single chunk
+          case internal =>
+            executor.execute(() => deliver(internal, last = true))
+        }
+      }
+    }
+
+    private def deliver(value: AnyRef, last: Boolean): Unit = {
+      if (!done) {
+        try {
+          value match {
+            case _ if invalid.nonEmpty =>
+              done = true
+              closeChannel()
+              subscriber.onError(new IllegalArgumentException(
+                "Requested number of chunks must be positive but was " + invalid.get
+              ))
+
+            case _ if expired =>
+              done = true
+              subscriber.onError(Interrupted(ErrorMsg.deadline))
+
+            case null =>
+              done = true
+              subscriber.onComplete()
+
+            case anomalyMap: PersistentArrayMap
+              if anomalyMap.containsKey(Kw.anomalyCategory) =>
+              done = true
+              subscriber.onError(anomaly(anomalyMap))
+
+            case chunk =>
+              demand.decrementAndGet()
+              subscriber.onNext(transform.fold(chunk.asInstanceOf[T])(_(chunk)))
+              if (last) {
+                done = true
+                subscriber.onComplete()
+              }
+          }
+        } catch {
+          case e: Throwable =>
+            done = true
+            closeChannel()
+            subscriber.onError(e)
+        }
+      }
+      if (done)
+        expiry.foreach(_.cancel(false))
+      inFlight.set(false)
+      pull()
+    }
+
+    private def closeChannel(): Unit = channelOrInternal match {
+      case channel: IType => CoreAsync.close.invoke(channel)
+      case _              => ()
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package datomicJava.client.api.async
+
+import java.io.StringReader
+import java.util.concurrent.CompletableFuture
+import java.util.{List => jList}
+import datomic.Util.readAll
+import datomicClient.anomaly.CognitectAnomaly
+import datomicJava.client.api.async
+
+
+/** Chain of speculative `with` transactions applied asynchronously.
+ *
+ * Each step applies its statements to the `dbAfter` of the previous step
+ * once that is available, without fetching a new with-db from the
+ * connection and without blocking a thread. Sessions are immutable, so
+ * several what-if chains can branch from the same session.
+ *
+ * An anomaly of a step is passed on as the result of all following steps.
+ *
+ * {{{
+ * SpeculativeSession.of(conn)
+ *   .with(priceChange)
+ *   .with(discount)
+ *   .dbAfter()
+ *   .thenCompose(db -> ...)
+ * }}}
+ */
+final class SpeculativeSession private(
+  val dbAfter: CompletableFuture[Either[CognitectAnomaly, AsyncDb]]
+) {
+
+  def `with`(stmts: jList[_]): SpeculativeSession = new SpeculativeSession(
+    dbAfter.thenCompose[Either[CognitectAnomaly, AsyncDb]] {
+      case Right(db) =>
+        db.`with`(db.datomicDb, stmts).thenApply[Either[CognitectAnomaly, AsyncDb]] {
+          case Right(txReport) => async.Right(txReport.dbAfter)
+          case Left(anomaly)   => async.Left(anomaly)
+        }
+
+      case Left(anomaly) => CompletableFuture.completedFuture(async.Left(anomaly))
+    }
+  )
+
+  def `with`(edn: String): SpeculativeSession =
+    `with`(readAll(new StringReader(edn)).get(0).asInstanceOf[jList[_]])
+}
+
+
+object SpeculativeSession {
+
+  /** Session on a with-db fetched once from `conn`. */
+  def of(conn: AsyncConnection): SpeculativeSession = new SpeculativeSession(
+    conn.withDb.thenApply[Either[CognitectAnomaly, AsyncDb]] {
+      case Right(withDb) => async.Right(AsyncDb(withDb, None, conn.executor, conn.deadline))
+      case Left(anomaly) => async.Left(anomaly)
+    }
+  )
+
+  /** Session on a with-db or the `dbAfter` of a speculative transaction. */
+  def of(withDb: AsyncDb): SpeculativeSession = new SpeculativeSession(
+    CompletableFuture.completedFuture[Either[CognitectAnomaly, AsyncDb]](async.Right(withDb))
+  )
+}
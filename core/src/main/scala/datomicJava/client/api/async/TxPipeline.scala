@@ -0,0 +1,66 @@
+package datomicJava.client.api.async
+
+import java.io.{Reader, StringReader}
+import java.util.concurrent.CompletableFuture
+import java.util.{List => jList}
+import datomic.Util.readAll
+import datomicClient.InFlightWindow
+import datomicClient.anomaly.{Busy, CognitectAnomaly}
+
+
+/** Pipelined transactions with a bounded number in flight.
+ *
+ * Up to `maxInFlight` transactions are sent without waiting for the previous
+ * ones to commit. `transact` blocks the producer while the window is full.
+ * The window size adapts to commit latency and `Busy` anomalies (see
+ * [[datomicClient.InFlightWindow]]).
+ *
+ * Returned futures complete in submission order, so callbacks registered on
+ * them run in the order the transactions were submitted.
+ *
+ * @param conn        connection to transact with
+ * @param maxInFlight max number of transactions in flight
+ */
+final class TxPipeline(conn: AsyncConnection, maxInFlight: Int) {
+
+  private val window = new InFlightWindow(maxInFlight)
+
+  private var tail: CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] =
+    CompletableFuture.completedFuture(null)
+
+  def transact(stmts: jList[_])
+  : CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] = synchronized {
+    val started = window.acquire()
+    val result  = conn.transact(stmts)
+    result.whenComplete { (res: Either[CognitectAnomaly, AsyncTxReport], _: Throwable) =>
+      window.release(started, res match {
+        case Left(_: Busy) => true
+        case _             => false
+      })
+    }
+
+    // Complete after the previous transaction
+    val ordered = new CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]]()
+    tail.whenComplete { (_: Either[CognitectAnomaly, AsyncTxReport], _: Throwable) =>
+      result.whenComplete { (res: Either[CognitectAnomaly, AsyncTxReport], failure: Throwable) =>
+        if (failure == null) ordered.complete(res) else ordered.completeExceptionally(failure)
+        ()
+      }
+      ()
+    }
+    tail = ordered
+    ordered
+  }
+
+  def transact(stmtsReader: Reader): CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] =
+    transact(readAll(stmtsReader).get(0).asInstanceOf[jList[_]])
+
+  def transact(edn: String): CompletableFuture[Either[CognitectAnomaly, AsyncTxReport]] =
+    transact(readAll(new StringReader(edn)).get(0).asInstanceOf[jList[_]])
+
+
+  /** Current bound on transactions in flight. */
+  def limit: Int = window.currentLimit
+
+  def inFlight: Int = window.inFlightCount
+}
@@ -2,12 +2,15 @@ package datomicJava.client.api.sync
 
 import java.io.{Reader, StringReader}
 import java.lang.{Iterable => jIterable}
+import java.nio.file.Path
+import java.util.function.Consumer
 import java.util.{List => jList, Map => jMap}
 import datomic.Util._
 import datomicClient._
 import datomicClient.anomaly.AnomalyWrapper
-import datomicJava.client.api.{Datom, Helper}
+import datomicJava.client.api.{Datom, Helper, TxRangeCursor}
 import javafx.util.Pair
+import scala.annotation.varargs
 
 
 case class Connection(datomicConn: AnyRef) extends AnomalyWrapper {
@@ -34,6 +37,37 @@ case class Connection(datomicConn: AnyRef) extends AnomalyWrapper {
   def transact(edn: String): TxReport =
     transact(readAll(new StringReader(edn)).get(0).asInstanceOf[jList[_]])
 
+  // Tx data bound from a template compiled once
+  @varargs
+  def transact(template: TxTemplate, values: Any*): TxReport = TxReport(
+    Invoke.transactTxData(datomicConn, template.bind(values: _*)).asInstanceOf[jMap[_, _]]
+  )
+
+  // EDN tx data read incrementally and transacted in bounded transactions
+  def bulkImport(
+    stmtsReader: Reader,
+    maxDatoms: Int,
+    maxChars: Long,
+    onProgress: Consumer[BulkImport.Progress]
+  ): BulkImport.Progress =
+    new BulkImport(datomicConn, maxDatoms, maxChars, onProgress).run(stmtsReader)
+
+  def bulkImport(
+    path: Path,
+    maxDatoms: Int,
+    maxChars: Long,
+    onProgress: Consumer[BulkImport.Progress]
+  ): BulkImport.Progress =
+    new BulkImport(datomicConn, maxDatoms, maxChars, onProgress).run(path)
+
+  def bulkImport(path: Path): BulkImport.Progress =
+    bulkImport(path, 1000, 1 << 20, null)
+
+
+  // Small concurrent transactions merged into group commits
+  def batcher(windowMillis: Long, maxStmts: Int): TxBatcher =
+    new TxBatcher(this, windowMillis, maxStmts)
+
 
   def txRange(
     timePointStart: Any, // Int | Long | java.util.Date
@@ -99,10 +133,32 @@ case class Connection(datomicConn: AnyRef) extends AnomalyWrapper {
     txRangeArray(0, 0, 0, 0, 1000)
 
 
+  // Flyweight cursor over txs and their datoms
+  def txRangeCursor(
+    timePointStart: Any, // Int | Long | java.util.Date
+    timePointEnd: Any,
+    timeout: Int,
+    offset: Int,
+    limit: Int
+  ): TxRangeCursor = {
+    val startOpt: Option[Any] = if (timePointStart == 0) None else Some(timePointStart)
+    val endOpt  : Option[Any] = if (timePointEnd == 0) None else Some(timePointEnd)
+    new TxRangeCursor(
+      Invoke.txRange(datomicConn, startOpt, endOpt, timeout, offset, limit)
+    )
+  }
+
+  def txRangeCursor(timePointStart: Any, timePointEnd: Any): TxRangeCursor =
+    txRangeCursor(timePointStart, timePointEnd, 0, 0, 1000)
+
+  def txRangeCursor(): TxRangeCursor =
+    txRangeCursor(0, 0, 0, 0, 1000)
+
+
   // Convenience method for single invocation from connection
   def widh(stmts: jList[_]): Db = {
     val txReport = Invoke.`with`(withDb, stmts).asInstanceOf[jMap[_, _]]
-    val dbAfter  = txReport.get(read(":db-after"))
+    val dbAfter  = txReport.get(Kw.dbAfter)
     Db(dbAfter.asInstanceOf[AnyRef])
   }
 
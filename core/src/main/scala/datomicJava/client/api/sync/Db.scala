@@ -1,12 +1,13 @@
 package datomicJava.client.api.sync
 
 import java.io.{Reader, StringReader}
+import java.util.concurrent.Executor
 import java.util.stream.{Stream => jStream}
-import java.util.{Date, List => jList, Map => jMap}
+import java.util.{Date, Spliterator, List => jList, Map => jMap}
 import datomic.Util.readAll
-import datomicClient.{DbLookup, Invoke}
-import datomicJava.client.api.Helper.streamOfDatoms
-import datomicJava.client.api.{Datom, DbStats, Helper}
+import datomicClient.{DatomPages, DbLookup, FanOut, Invoke, PartitionedScan, Prefetcher}
+import datomicJava.client.api.Helper.{streamOfDatoms, streamOfPrimitiveDatoms}
+import datomicJava.client.api.{Datom, DatomBatch, DatomCursor, DbStats, Helper, PrimitiveDatom}
 
 
 case class Db(
@@ -105,6 +106,115 @@ case class Db(
   def datoms(index: String, components: jList[_]): jStream[Datom] =
     datoms(index, components, 0, 0, 1000)
 
+  // Same as `datoms` with unboxed ids
+  def datomsPrimitive(
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    offset: Int,
+    limit: Int
+  ): jStream[PrimitiveDatom] = {
+    streamOfPrimitiveDatoms(
+      Invoke.datoms(datomicDb, index, components, timeout, offset, limit)
+    )
+  }
+
+  def datomsPrimitive(index: String, components: jList[_]): jStream[PrimitiveDatom] =
+    datomsPrimitive(index, components, 0, 0, 1000)
+
+  // Page of datoms decoded into columns
+  def datomsBatch(
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    offset: Int,
+    limit: Int
+  ): DatomBatch = {
+    Helper.datomBatch(
+      Invoke.datoms(datomicDb, index, components, timeout, offset, limit)
+    )
+  }
+
+  def datomsBatch(index: String, components: jList[_]): DatomBatch =
+    datomsBatch(index, components, 0, 0, 1000)
+
+  // Flyweight cursor over datoms
+  def datomsCursor(
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    offset: Int,
+    limit: Int
+  ): DatomCursor = {
+    new DatomCursor(
+      Invoke.datoms(datomicDb, index, components, timeout, offset, limit)
+    )
+  }
+
+  def datomsCursor(index: String, components: jList[_]): DatomCursor =
+    datomsCursor(index, components, 0, 0, 1000)
+
+  // Datoms fetched lazily in pages with memory bounded by the page size.
+  // Unlike indexRangePaged, pages are the chunks of one server-side cursor,
+  // not requests resuming from a key, since datoms can't seek to a key.
+  def datomsPaged(
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    pageSize: Int
+  ): jStream[Datom] = {
+    Helper.streamOfDatomPages(
+      DatomPages.datoms(Invoke, datomicDb, index, components, timeout, pageSize)
+    )
+  }
+
+  def datomsPaged(index: String, components: jList[_]): jStream[Datom] =
+    datomsPaged(index, components, 0, 1000)
+
+  // Datoms in pages with up to `depth` next pages fetched ahead on `executor`
+  def datomsPrefetched(
+    index: String,
+    components: jList[_],
+    timeout: Int,
+    pageSize: Int,
+    depth: Int,
+    maxBuffered: Int,
+    executor: Executor
+  ): jStream[Datom] = {
+    Helper.streamOfDatomPages(
+      Prefetcher.datoms(
+        datomicDb, index, components, timeout, pageSize,
+        executor, depth, maxBuffered
+      )
+    )
+  }
+
+  def datomsPrefetched(index: String, components: jList[_]): jStream[Datom] =
+    datomsPrefetched(index, components, 0, 1000, 2, 10000, Prefetcher.defaultExecutor)
+
+  // Datoms of partitions given by their components, fetched concurrently
+  // when consumed with a parallel stream
+  def datomsPartitioned(
+    index: String,
+    partitions: jList[jList[_]],
+    timeout: Int,
+    pageSize: Int,
+    ordered: Boolean,
+    executor: Executor
+  ): Spliterator[Datom] = {
+    PartitionedScan.datoms(
+      datomicDb, index, partitions, timeout, pageSize, ordered, executor,
+      Helper.getDatom
+    )
+  }
+
+  def datomsPartitioned(
+    index: String,
+    partitions: jList[jList[_]]
+  ): Spliterator[Datom] = {
+    datomsPartitioned(index, partitions, 0, 1000, true, Prefetcher.defaultExecutor)
+  }
+
 
   def indexRange(
     attrId: String,
@@ -130,10 +240,139 @@ case class Db(
   ): jStream[Datom] = indexRange(attrId, start, end, 0, 0, 1000)
 
   def indexRange[T](attrId: String, start: Any): jStream[Datom] =
-    indexRange(attrId, start, None, 0, 0, 1000)
+    indexRange(attrId, start, null, 0, 0, 1000)
 
   def indexRange[T](attrId: String): jStream[Datom] =
-    indexRange(attrId, None, None, 0, 0, 1000)
+    indexRange(attrId, null, null, 0, 0, 1000)
+
+  // Same as `indexRange` with unboxed ids
+  def indexRangePrimitive(
+    attrId: String,
+    start: Any,
+    end: Any,
+    timeout: Int,
+    offset: Int,
+    limit: Int
+  ): jStream[PrimitiveDatom] = {
+    streamOfPrimitiveDatoms(
+      Invoke.indexRange(
+        datomicDb, attrId, Option(start), Option(end), timeout, offset, limit
+      )
+    )
+  }
+
+  def indexRangePrimitive(attrId: String, start: Any, end: Any): jStream[PrimitiveDatom] =
+    indexRangePrimitive(attrId, start, end, 0, 0, 1000)
+
+  // Page of datoms decoded into columns
+  def indexRangeBatch(
+    attrId: String,
+    start: Any,
+    end: Any,
+    timeout: Int,
+    offset: Int,
+    limit: Int
+  ): DatomBatch = {
+    Helper.datomBatch(
+      Invoke.indexRange(
+        datomicDb, attrId, Option(start), Option(end), timeout, offset, limit
+      )
+    )
+  }
+
+  def indexRangeBatch(attrId: String, start: Any, end: Any): DatomBatch =
+    indexRangeBatch(attrId, start, end, 0, 0, 1000)
+
+  // Flyweight cursor over datoms
+  def indexRangeCursor(
+    attrId: String,
+    start: Any,
+    end: Any,
+    timeout: Int,
+    offset: Int,
+    limit: Int
+  ): DatomCursor = {
+    new DatomCursor(
+      Invoke.indexRange(
+        datomicDb, attrId, Option(start), Option(end), timeout, offset, limit
+      )
+    )
+  }
+
+  def indexRangeCursor(attrId: String, start: Any, end: Any): DatomCursor =
+    indexRangeCursor(attrId, start, end, 0, 0, 1000)
+
+  // Datoms fetched lazily in pages, each resuming from the last value
+  def indexRangePaged(
+    attrId: String,
+    start: Any,
+    end: Any,
+    timeout: Int,
+    pageSize: Int
+  ): jStream[Datom] = {
+    Helper.streamOfDatomPages(
+      DatomPages.indexRange(
+        Invoke, datomicDb, attrId, Option(start), Option(end), timeout, pageSize
+      )
+    )
+  }
+
+  def indexRangePaged(attrId: String, start: Any, end: Any): jStream[Datom] =
+    indexRangePaged(attrId, start, end, 0, 1000)
+
+  // Datoms in pages with up to `depth` next pages fetched ahead on `executor`
+  def indexRangePrefetched(
+    attrId: String,
+    start: Any,
+    end: Any,
+    timeout: Int,
+    pageSize: Int,
+    depth: Int,
+    maxBuffered: Int,
+    executor: Executor
+  ): jStream[Datom] = {
+    Helper.streamOfDatomPages(
+      Prefetcher.indexRange(
+        datomicDb, attrId, Option(start), Option(end), timeout, pageSize,
+        executor, depth, maxBuffered
+      )
+    )
+  }
+
+  def indexRangePrefetched(attrId: String, start: Any, end: Any): jStream[Datom] = {
+    indexRangePrefetched(
+      attrId, start, end, 0, 1000, 2, 10000, Prefetcher.defaultExecutor
+    )
+  }
+
+  // Datoms in value ranges of about `stride` datoms, fetched concurrently
+  // when consumed with a parallel stream
+  def indexRangePartitioned(
+    attrId: String,
+    start: Any,
+    end: Any,
+    stride: Int,
+    timeout: Int,
+    pageSize: Int,
+    ordered: Boolean,
+    executor: Executor
+  ): Spliterator[Datom] = {
+    PartitionedScan.indexRange(
+      datomicDb, attrId, Option(start), Option(end), stride, timeout, pageSize,
+      ordered, executor, Helper.getDatom
+    )
+  }
+
+  def indexRangePartitioned(
+    attrId: String,
+    start: Any,
+    end: Any,
+    stride: Int
+  ): Spliterator[Datom] = {
+    indexRangePartitioned(
+      attrId, start, end, stride, 0, 1000, true, Prefetcher.defaultExecutor
+    )
+  }
 
 
   // Pull --------------------------------------
@@ -156,6 +395,15 @@ case class Db(
   def pull(selector: String, eid: Any): jMap[_, _] =
     pull(selector, eid, 0, 0, 1000)
 
+  // Pulls run concurrently on a (virtual) thread each. Fails on first failure.
+  // Only the calls of this helper fan out, other sync calls block the calling
+  // thread as before and there is no client-wide virtual-thread mode.
+  def pullAll(selector: String, eids: jList[_], timeout: Int): jList[jMap[_, _]] =
+    FanOut.all(eids.size, i => pull(selector, eids.get(i), timeout, 0, 1000))
+
+  def pullAll(selector: String, eids: jList[_]): jList[jMap[_, _]] =
+    pullAll(selector, eids, 0)
+
 
   def indexPull(
     index: String,
@@ -197,4 +445,34 @@ case class Db(
   ): jStream[_] = {
     indexPull(index, selector, start, false, 0, 0, 1000)
   }
+
+  // Pulled entities in pages with up to `depth` next pages fetched ahead on `executor`
+  def indexPullPrefetched(
+    index: String,
+    selector: String,
+    start: String,
+    reverse: Boolean,
+    timeout: Int,
+    pageSize: Int,
+    depth: Int,
+    maxBuffered: Int,
+    executor: Executor
+  ): jStream[jMap[_, _]] = {
+    Helper.mkStream(
+      Prefetcher.indexPull[jMap[_, _]](
+        datomicDb, index, selector, start, reverse, timeout, pageSize,
+        executor, depth, maxBuffered
+      )
+    )
+  }
+
+  def indexPullPrefetched(
+    index: String,
+    selector: String,
+    start: String
+  ): jStream[jMap[_, _]] = {
+    indexPullPrefetched(
+      index, selector, start, false, 0, 1000, 2, 10000, Prefetcher.defaultExecutor
+    )
+  }
 }
\ No newline at end of file
@@ -0,0 +1,315 @@
+package datomicJava.client.api.sync
+
+import java.io.{Reader, StringReader}
+import java.util.concurrent.atomic.LongAdder
+import java.util.concurrent.{CompletableFuture, ExecutionException, LinkedBlockingQueue, TimeUnit}
+import java.util.{ArrayList => jArrayList, HashMap => jHashMap, HashSet => jHashSet, Iterator => jIterator, List => jList, Map => jMap}
+import datomic.Util.readAll
+import datomic.db.DbId
+import datomicClient.anomaly.CognitectAnomaly
+import datomicClient.{CljData, ErrorMsg, Kw}
+
+
+/** Group commit of small transactions submitted concurrently.
+ *
+ * Transactions submitted within `windowMillis` after the first pending one
+ * are merged into a single `transact` of up to `maxStmts` statements. Each
+ * caller gets a TxReport of the merged transaction with only the temp ids of
+ * its own statements.
+ *
+ * Transactions are only merged when their temp ids can't clash: a temp id of
+ * one transaction must not appear as a String anywhere in the statements of
+ * another transaction of the batch. Temp ids given as `DbId` count as the
+ * String they are transacted as. A transaction that doesn't fit waits for
+ * the next batch, so transactions are committed in submission order.
+ *
+ * When a merged transaction returns an anomaly, the transactions of the batch
+ * are retried one by one so that each caller gets its own result or anomaly.
+ *
+ * Only the synchronous Java Connection has a batcher. Its `transactAsync`
+ * already lets concurrent callers submit without blocking, and the merged
+ * `transact` runs on the batcher's own thread.
+ *
+ * @param conn         connection to transact with
+ * @param windowMillis time to wait for more transactions to join a batch
+ * @param maxStmts     max number of statements of a merged transaction
+ */
+final class TxBatcher(
+  conn: Connection,
+  windowMillis: Long,
+  maxStmts: Int
+) extends AutoCloseable {
+
+  import TxBatcher._
+
+  if (windowMillis < 0 || maxStmts < 1)
+    throw new IllegalArgumentException(ErrorMsg.zeroNeg)
+
+  private val windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis)
+  private val queue       = new LinkedBlockingQueue[Member]()
+  private var closed      = false
+  private val started     = System.nanoTime()
+
+  private val submitted = new LongAdder
+  private val committed = new LongAdder
+  private val failed    = new LongAdder
+  private val transacts = new LongAdder
+  private val retried   = new LongAdder
+
+  private val worker = {
+    val t = new Thread(() => run(), "datomic-tx-batcher")
+    t.setDaemon(true)
+    t.start()
+    t
+  }
+
+
+  /** Transaction committed alone or as part of a batch. */
+  def transactAsync(stmts: jList[_]): CompletableFuture[TxReport] = {
+    val member = new Member(stmts)
+    synchronized {
+      if (closed)
+        throw new IllegalStateException(ErrorMsg.batcherClosed)
+      queue.put(member)
+    }
+    submitted.increment()
+    member.future
+  }
+
+  def transactAsync(stmtsReader: Reader): CompletableFuture[TxReport] =
+    transactAsync(readAll(stmtsReader).get(0).asInstanceOf[jList[_]])
+
+  def transactAsync(edn: String): CompletableFuture[TxReport] =
+    transactAsync(readAll(new StringReader(edn)).get(0).asInstanceOf[jList[_]])
+
+
+  /** Blocks until the batch of the transaction is committed. */
+  def transact(stmts: jList[_]): TxReport = {
+    try {
+      transactAsync(stmts).get()
+    } catch {
+      case e: ExecutionException => throw e.getCause
+    }
+  }
+
+  def transact(stmtsReader: Reader): TxReport =
+    transact(readAll(stmtsReader).get(0).asInstanceOf[jList[_]])
+
+  def transact(edn: String): TxReport =
+    transact(readAll(new StringReader(edn)).get(0).asInstanceOf[jList[_]])
+
+
+  def metrics: Metrics = Metrics(
+    submitted.sum,
+    committed.sum,
+    failed.sum,
+    transacts.sum,
+    retried.sum,
+    System.nanoTime() - started
+  )
+
+
+  /** Stops accepting transactions and waits for the pending ones. */
+  override def close(): Unit = {
+    synchronized {
+      if (!closed) {
+        closed = true
+        queue.put(Stop)
+      }
+    }
+    worker.join()
+  }
+
+
+  private def run(): Unit = {
+    var carry = Option.empty[Member]
+    var stop  = false
+    while (!stop || carry.nonEmpty) {
+      val first = carry.getOrElse(queue.take())
+      carry = None
+      if (first eq Stop) {
+        stop = true
+      } else {
+        val batch      = new Batch(first)
+        val windowEnds = System.nanoTime() + windowNanos
+        var collecting = true
+        while (collecting && batch.size < maxStmts) {
+          queue.poll(windowEnds - System.nanoTime(), TimeUnit.NANOSECONDS) match {
+            case null                                  => collecting = false
+            case Stop                                  => stop = true; collecting = false
+            case next if batch.accepts(next, maxStmts) => batch.add(next)
+            case next                                  => carry = Some(next); collecting = false
+          }
+        }
+        commit(batch)
+      }
+    }
+  }
+
+  private def commit(batch: Batch): Unit = {
+    if (batch.members.size == 1) {
+      transactAlone(batch.members.get(0))
+    } else {
+      val merged = new jArrayList[Any](batch.size)
+      batch.members.forEach(member => merged.addAll(member.stmts))
+      transacts.increment()
+      try {
+        val txReport = conn.transact(merged)
+        batch.members.forEach { member =>
+          committed.increment()
+          member.future.complete(TxReport(ownTempIds(txReport.rawTxReport, member)))
+        }
+      } catch {
+        case _: CognitectAnomaly =>
+          // Isolate the failing transactions
+          retried.increment()
+          batch.members.forEach(member => transactAlone(member))
+
+        case e: Throwable =>
+          batch.members.forEach { member =>
+            failed.increment()
+            member.future.completeExceptionally(e)
+          }
+      }
+    }
+  }
+
+  private def transactAlone(member: Member): Unit = {
+    transacts.increment()
+    try {
+      val txReport = conn.transact(member.stmts)
+      committed.increment()
+      member.future.complete(txReport)
+    } catch {
+      case e: Throwable =>
+        failed.increment()
+        member.future.completeExceptionally(e)
+    }
+  }
+}
+
+
+object TxBatcher {
+
+  /** Counts since the batcher was created.
+   *
+   * @param submitted    transactions submitted
+   * @param committed    transactions committed
+   * @param failed       transactions failed
+   * @param transacts    `transact` calls including retries
+   * @param retried      merged transactions retried one by one
+   * @param elapsedNanos time since the batcher was created
+   */
+  case class Metrics(
+    submitted: Long,
+    committed: Long,
+    failed: Long,
+    transacts: Long,
+    retried: Long,
+    elapsedNanos: Long
+  ) {
+
+    /** Mean number of transactions committed per `transact` call. */
+    def meanBatchSize: Double =
+      if (transacts == 0) 0.0 else committed.toDouble / transacts
+
+    /** Transactions committed per second. */
+    def throughput: Double =
+      if (elapsedNanos <= 0) 0.0 else committed * 1e9 / elapsedNanos
+  }
+
+
+  private class Member(val stmts: jList[_]) {
+    val future = new CompletableFuture[TxReport]()
+
+    // Temp ids in entity position and all Strings that may refer to one
+    val tempIds = new jHashSet[String]()
+    val strings = new jHashSet[String]()
+
+    if (stmts != null)
+      scan(stmts)
+
+    private def scan(data: Any): Unit = data match {
+      case s: String => strings.add(s)
+      case id: DbId  => tempId(id).foreach(strings.add)
+
+      case entity: jMap[_, _] =>
+        tempId(entity.get(Kw.dbId)).foreach(tempIds.add)
+        scanAll(entity.values.iterator)
+
+      case stmt: jList[_] =>
+        if (stmt.size > 1 && (stmt.get(0) == Kw.dbAdd || stmt.get(0) == Kw.dbRetract))
+          tempId(stmt.get(1)).foreach(tempIds.add)
+        scanAll(stmt.iterator)
+
+      case _ =>
+    }
+
+    // Temp id as the String it is transacted as
+    private def tempId(id: Any): Option[String] = id match {
+      case tempId: String => Some(tempId)
+      case id: DbId       => CljData.value(id) match {
+        case tempId: String => Some(tempId)
+        case _              => None
+      }
+      case _              => None
+    }
+
+    private def scanAll(it: jIterator[_]): Unit =
+      while (it.hasNext)
+        scan(it.next())
+  }
+
+  // Marks the end of the queue
+  private object Stop extends Member(null)
+
+
+  private class Batch(first: Member) {
+    val members = new jArrayList[Member]()
+    var size    = 0
+
+    private val tempIds = new jHashSet[String]()
+    private val strings = new jHashSet[String]()
+
+    add(first)
+
+    def accepts(member: Member, maxStmts: Int): Boolean =
+      size + member.stmts.size <= maxStmts &&
+        disjoint(member.tempIds, strings) &&
+        disjoint(member.strings, tempIds)
+
+    def add(member: Member): Unit = {
+      members.add(member)
+      size += member.stmts.size
+      tempIds.addAll(member.tempIds)
+      strings.addAll(member.strings)
+    }
+
+    private def disjoint(a: jHashSet[String], b: jHashSet[String]): Boolean = {
+      val it = a.iterator()
+      var none = true
+      while (none && it.hasNext)
+        none = !b.contains(it.next())
+      none
+    }
+  }
+
+
+  // Raw tx report with only the temp ids of the member
+  private def ownTempIds(rawTxReport: jMap[_, _], member: Member): jMap[_, _] = {
+    val own = new jHashMap[Any, Any]()
+    rawTxReport.get(Kw.tempids) match {
+      case all: jMap[_, _] =>
+        val it = all.entrySet.iterator
+        while (it.hasNext) {
+          val entry = it.next()
+          if (member.tempIds.contains(entry.getKey))
+            own.put(entry.getKey, entry.getValue)
+        }
+      case _               =>
+    }
+    val split = new jHashMap[Any, Any](rawTxReport)
+    split.put(Kw.tempids, own)
+    split
+  }
+}
@@ -0,0 +1,9 @@
+package datomicScala.client.api
+
+
+/** Single-pass iterator that can be closed before it is exhausted.
+ *
+ * Consumed elements are not memoized, so only the current element is
+ * referenced. Closing releases the underlying source and ends the iteration.
+ */
+trait CloseableIterator[+T] extends Iterator[T] with AutoCloseable
@@ -0,0 +1,26 @@
+package datomicScala.client.api
+
+import java.util.BitSet
+
+
+/** Page of datoms decoded into parallel columns.
+ *
+ * Column index `i` holds the i'th datom of the page. Values are kept in a
+ * long column when all values of the page are longs (refs, numbers) and
+ * otherwise in an object column.
+ */
+final class DatomBatch(
+  val size: Int,
+  val e: Array[Long],
+  val a: Array[Int],
+  val tx: Array[Long],
+  val added: BitSet,
+  val longValues: Array[Long], // null if not all values are longs
+  val values: Array[AnyRef] // null if all values are longs
+) {
+  def hasLongValues: Boolean = longValues != null
+
+  def value(i: Int): Any = if (longValues != null) longValues(i) else values(i)
+
+  def isAdded(i: Int): Boolean = added.get(i)
+}
@@ -0,0 +1,104 @@
+package datomicScala.client.api.async
+
+import java.util.{Collection => jCollection}
+import cats.effect.Async
+import clojure.lang.{AFn, IType, PersistentArrayMap}
+import datomicClient.anomaly.{AnomalyWrapper, CognitectAnomaly}
+import datomicClient.{CoreAsync, Kw}
+
+
+/** fs2 sources of the chunks of a core.async channel.
+ *
+ * Chunks are taken with core.async `take!` callbacks so that no thread is
+ * blocked while waiting. Up to `prefetch` chunks are taken ahead of the
+ * consumer. The channel is closed when the stream ends, fails or is
+ * interrupted, which lets Datomic stop producing chunks.
+ */
+object ChannelStream extends AnomalyWrapper {
+
+  /** Elements of all chunks with each channel chunk emitted as one array
+   * backed fs2 Chunk. Anomalies fail the stream.
+   *
+   * @param channelOrInternal evaluated when the stream is run
+   * @param decode            decoding of each element of a chunk
+   * @param prefetch          number of chunks taken ahead of the consumer
+   */
+  def apply[F[_], T](
+    channelOrInternal: => AnyRef,
+    decode: AnyRef => T,
+    prefetch: Int
+  )(implicit F: Async[F]): fs2.Stream[F, T] = {
+    val chunks = channel(channelOrInternal).flatMap(rawChunks[F]).evalMap {
+      case Right(rawData) => F.delay(toChunk(rawData, decode))
+      case Left(anomaly)  => F.raiseError[fs2.Chunk[T]](anomaly)
+    }
+    (if (prefetch > 0) chunks.prefetchN(prefetch) else chunks)
+      .flatMap(fs2.Stream.chunk)
+  }
+
+  /** Each channel chunk as a Right or an anomaly as a Left. */
+  def chunks[F[_], T](
+    channelOrInternal: => AnyRef,
+    transform: Option[AnyRef => T]
+  )(implicit F: Async[F]): fs2.Stream[F, Either[CognitectAnomaly, T]] = {
+    channel(channelOrInternal).flatMap(rawChunks[F]).map(_.map(chunk =>
+      transform.fold(chunk.asInstanceOf[T])(_(chunk))
+    ))
+  }
+
+
+  private def channel[F[_]](channelOrInternal: => AnyRef)(implicit F: Async[F])
+  : fs2.Stream[F, AnyRef] =
+    fs2.Stream.bracket(F.delay(channelOrInternal)) {
+      case ch: IType => F.delay { CoreAsync.close.invoke(ch); () }
+      case _         => F.unit
+    }
+
+  private def rawChunks[F[_]](channelOrInternal: AnyRef)(implicit F: Async[F])
+  : fs2.Stream[F, Either[CognitectAnomaly, AnyRef]] = channelOrInternal match {
+    case ch: IType => fs2.Stream.repeatEval(take(ch)).unNoneTerminate
+
+    // Internal types like TxReport etc. as a single chunk
+    case null     => fs2.Stream.empty
+    case internal => fs2.Stream.emit(Right(internal))
+  }
+
+  // None when the channel is drained
+  private def take[F[_]](ch: IType)(implicit F: Async[F])
+  : F[Option[Either[CognitectAnomaly, AnyRef]]] = {
+    F.map(
+      F.async_[AnyRef] { cb =>
+        CoreAsync.take.invoke(ch, new AFn {
+          override def invoke(value: AnyRef): AnyRef = {
+            cb(Right(value))
+            null
+          }
+        })
+        ()
+      }
+    ) {
+      case null => None
+
+      case anomalyMap: PersistentArrayMap
+        if anomalyMap.containsKey(Kw.anomalyCategory) =>
+        Some(Left(anomaly(anomalyMap)))
+
+      case chunk => Some(Right(chunk))
+    }
+  }
+
+  private def toChunk[T](rawData: AnyRef, decode: AnyRef => T): fs2.Chunk[T] = {
+    rawData match {
+      case coll: jCollection[_] =>
+        val array = new Array[Any](coll.size)
+        var i     = 0
+        coll.forEach { e =>
+          array(i) = decode(e.asInstanceOf[AnyRef])
+          i += 1
+        }
+        fs2.Chunk.array(array).asInstanceOf[fs2.Chunk[T]]
+
+      case single => fs2.Chunk.singleton(decode(single))
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package datomicScala.client.api.async
+
+import java.util.concurrent.{CompletableFuture, CompletionException}
+import datomicClient.anomaly.CognitectAnomaly
+import scala.concurrent.{Future, Promise}
+
+
+private[async] object FutureBridge {
+
+  // Java future as a Scala Future with anomalies as Left
+  def apply[T](future: CompletableFuture[T]): Future[Either[CognitectAnomaly, T]] = {
+    val promise = Promise[Either[CognitectAnomaly, T]]()
+    future.whenComplete { (value: T, failure: Throwable) =>
+      failure match {
+        case null                   => promise.success(Right(value))
+        case e: CompletionException => complete(promise, Option(e.getCause).getOrElse(e))
+        case e                      => complete(promise, e)
+      }
+      ()
+    }
+    promise.future
+  }
+
+  private def complete[T](
+    promise: Promise[Either[CognitectAnomaly, T]],
+    failure: Throwable
+  ): Unit = failure match {
+    case anomaly: CognitectAnomaly => promise.success(Left(anomaly))
+    case e                         => promise.failure(e)
+  }
+}
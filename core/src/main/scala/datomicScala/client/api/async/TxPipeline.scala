@@ -0,0 +1,59 @@
+package datomicScala.client.api.async
+
+import java.io.{Reader, StringReader}
+import java.util.{List => jList}
+import datomic.Util.readAll
+import datomicClient.InFlightWindow
+import datomicClient.anomaly.{Busy, CognitectAnomaly}
+import scala.concurrent.Future
+import scala.util.Success
+
+
+/** Pipelined transactions with a bounded number in flight.
+ *
+ * Up to `maxInFlight` transactions are sent without waiting for the previous
+ * ones to commit. `transact` blocks the producer while the window is full.
+ * The window size adapts to commit latency and `Busy` anomalies (see
+ * [[datomicClient.InFlightWindow]]).
+ *
+ * Returned futures complete in submission order, so callbacks registered on
+ * them run in the order the transactions were submitted.
+ *
+ * @param conn        connection to transact with
+ * @param maxInFlight max number of transactions in flight
+ */
+final class TxPipeline(conn: AsyncConnection, maxInFlight: Int) {
+
+  private val window = new InFlightWindow(maxInFlight)
+
+  private var tail: Future[Any] = Future.successful(())
+
+  def transact(stmts: jList[_])
+  : Future[Either[CognitectAnomaly, AsyncTxReport]] = synchronized {
+    val started = window.acquire()
+    val result  = conn.transact(stmts)
+    result.onComplete { res =>
+      window.release(started, res match {
+        case Success(Left(_: Busy)) => true
+        case _                      => false
+      })
+    }(conn.ec)
+
+    // Complete after the previous transaction
+    val ordered = tail.transformWith(_ => result)(conn.ec)
+    tail = ordered
+    ordered
+  }
+
+  def transact(stmtsReader: Reader): Future[Either[CognitectAnomaly, AsyncTxReport]] =
+    transact(readAll(stmtsReader).get(0).asInstanceOf[jList[_]])
+
+  def transact(edn: String): Future[Either[CognitectAnomaly, AsyncTxReport]] =
+    transact(readAll(new StringReader(edn)).get(0).asInstanceOf[jList[_]])
+
+
+  /** Current bound on transactions in flight. */
+  def limit: Int = window.currentLimit
+
+  def inFlight: Int = window.inFlightCount
+}
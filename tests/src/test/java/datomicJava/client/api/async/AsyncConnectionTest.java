@@ -1,5 +1,6 @@
 package datomicJava.client.api.async;
 
+import datomicClient.anomaly.CognitectAnomaly;
 import datomicJava.SetupAsync;
 import datomicJava.client.api.Datom;
 import javafx.util.Pair;
@@ -12,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Stream;
 
@@ -92,6 +94,26 @@ public class AsyncConnectionTest extends SetupAsync {
         assertThat(films(conn.db()), is(fourFilms));
     }
 
+    @Test
+    public void pipeline() throws ExecutionException, InterruptedException {
+        TxPipeline pipeline = conn.pipeline(2);
+        CompletableFuture<Either<CognitectAnomaly, AsyncTxReport>> tx4 = pipeline.transact(film4);
+        CompletableFuture<Either<CognitectAnomaly, AsyncTxReport>> tx5 = pipeline.transact(film5);
+        CompletableFuture<Either<CognitectAnomaly, AsyncTxReport>> tx6 = pipeline.transact(film6);
+
+        // Futures complete in submission order
+        AsyncTxReport txReport6 = ((Right<?, AsyncTxReport>) tx6.get()).right_value();
+        assertThat(tx4.isDone(), is(true));
+        assertThat(tx5.isDone(), is(true));
+
+        long t4 = ((Right<?, AsyncTxReport>) tx4.get()).right_value().t();
+        long t5 = ((Right<?, AsyncTxReport>) tx5.get()).right_value().t();
+        assertThat(t4 < t5 && t5 < txReport6.t(), is(true));
+        assertThat(films(conn.db()), is(sixFilms));
+
+        assertThat(pipeline.limit() <= 2, is(true));
+    }
+
 
     public static void checkRange(
         AsyncConnection conn,
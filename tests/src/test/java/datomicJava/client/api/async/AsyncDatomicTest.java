@@ -1,7 +1,10 @@
 package datomicJava.client.api.async;
 
+import datomicClient.Deadline;
+import datomicClient.ErrorMsg;
 import datomicClient.anomaly.CognitectAnomaly;
 import datomicClient.anomaly.Forbidden;
+import datomicClient.anomaly.Interrupted;
 import datomicJava.SetupAsync;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
@@ -15,6 +18,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 
 
 @FixMethodOrder(MethodSorters.JVM)
@@ -218,6 +222,27 @@ public class AsyncDatomicTest extends SetupAsync {
     }
 
 
+    @Test
+    public void qDeadline() throws ExecutionException, InterruptedException {
+        String query = "[:find ?movie-title :where [_ :movie/title ?movie-title]]";
+
+        // Ample budget
+        AsyncDb db = conn.db().withDeadline(Deadline.in(10000));
+        assertThat(
+            ((Right<?, Stream<?>>) AsyncDatomic.q(query, db).get().chunk()).right_value().count(),
+            is(3L)
+        );
+
+        // Expired deadline fails without invoking the query
+        AsyncDb expired = conn.db().withDeadline(Deadline.in(0));
+        ExecutionException e = assertThrows(
+            ExecutionException.class, () -> AsyncDatomic.q(query, expired).get()
+        );
+        assertThat(e.getCause(), instanceOf(Interrupted.class));
+        assertThat(e.getCause().getMessage(), is(ErrorMsg.deadline()));
+    }
+
+
     @Test
     public void qseq() throws ExecutionException, InterruptedException {
 
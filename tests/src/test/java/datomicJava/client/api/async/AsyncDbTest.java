@@ -1,16 +1,33 @@
 package datomicJava.client.api.async;
 
+import clojure.java.api.Clojure;
+import clojure.lang.IFn;
+import datomicClient.Deadline;
 import datomicClient.ErrorMsg;
+import datomicClient.anomaly.CognitectAnomaly;
+import datomicClient.anomaly.Interrupted;
 import datomicJava.SetupAsync;
 import datomicJava.client.api.Datom;
 import datomicJava.client.api.DbStats;
+import datomicJava.client.api.Helper;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
+import scala.Option;
 
 import java.io.FileNotFoundException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import static datomic.Util.*;
@@ -144,6 +161,12 @@ public class AsyncDbTest extends SetupAsync {
         assertThat(db.asOf(tx5).asOfTxInst(), is(txInst5));
         assertThat(db.asOf(txInst5).asOfTxInst(), is(txInst5));
 
+        // Pulled without blocking
+        assertThat(db.asOf(t4).asOfTxInstAsync().get().right_value(), is(txInst4));
+        assertThat(db.asOf(txInst5).asOfTxInstAsync().get().right_value(), is(txInst5));
+        assertThat(db.asOf(txInst4).asOfTAsync().get().right_value(), is(t4));
+        assertThat(db.asOf(tx5).asOfTAsync().get().right_value(), is(t5));
+
 
         // as-of-filtered db has no sinceT
         assertThat(db.asOf(t4).sinceT(), is(0L));
@@ -294,6 +317,18 @@ public class AsyncDbTest extends SetupAsync {
     }
 
 
+    @Test
+    public void sinceAsync() throws ExecutionException, InterruptedException {
+        AsyncDb sinceBefore = ((Right<?, AsyncDb>) conn.db().sinceAsync(txInstBefore).get()).right_value();
+        assertThat(films(sinceBefore), is(threeFilms));
+        assertThat(sinceBefore.sinceT(), is(conn.db().since(txInstBefore).sinceT()));
+
+        AsyncDb sinceAfter = ((Right<?, AsyncDb>) conn.db().sinceAsync(txAfter()).get()).right_value();
+        assertThat(films(sinceAfter), is(empty()));
+        assertThat(sinceAfter.sinceTxInst(), is(txInstAfter()));
+    }
+
+
     @Test
     public void withJavaStmts() throws ExecutionException, InterruptedException {
         // Original state is unaffected
@@ -421,6 +456,33 @@ public class AsyncDbTest extends SetupAsync {
     }
 
 
+    @Test
+    public void speculativeSession() throws ExecutionException, InterruptedException {
+        SpeculativeSession session4 = SpeculativeSession.of(conn).with(film4);
+
+        // Chained sessions build on each other
+        SpeculativeSession session5 = session4.with(film5);
+        SpeculativeSession session6 = session5.with(film6);
+
+        assertThat(films(((Right<?, AsyncDb>) session4.dbAfter().get()).right_value()), is(fourFilms));
+        assertThat(films(((Right<?, AsyncDb>) session5.dbAfter().get()).right_value()), is(fiveFilms));
+        assertThat(films(((Right<?, AsyncDb>) session6.dbAfter().get()).right_value()), is(sixFilms));
+
+        // Sibling branch from session4 next to session5
+        SpeculativeSession branch6 = session4.with(film6);
+        List<String> branchFilms = films(((Right<?, AsyncDb>) branch6.dbAfter().get()).right_value());
+        assertThat(branchFilms, is(list("Commando", "Film 4", "Film 6", "Repo Man", "The Goonies")));
+
+        // Branches don't see each other's data
+        assertThat(branchFilms, is(not(fiveFilms)));
+        assertThat(films(((Right<?, AsyncDb>) session5.dbAfter().get()).right_value()), is(fiveFilms));
+        assertThat(films(((Right<?, AsyncDb>) session4.dbAfter().get()).right_value()), is(fourFilms));
+
+        // Original state is unaffected
+        assertThat(films(conn.db()), is(threeFilms));
+    }
+
+
     @Test
     public void withJavaStmts_SingleInvocation() throws ExecutionException, InterruptedException {
         // As a convenience, a single-invocation shorter version of `with`:
@@ -642,6 +704,73 @@ public class AsyncDbTest extends SetupAsync {
     }
 
 
+    @Test
+    public void datomsPublisher() throws ExecutionException, InterruptedException {
+        // All chunks of 1 datom, each requested by the subscriber
+        List<Object> titles = new ArrayList<>();
+        CompletableFuture<Integer> chunks = new CompletableFuture<>();
+        conn.db().datomsPublisher(":avet", list(read(":movie/title")), 0, 1)
+            .subscribe(new Flow.Subscriber<Stream<Datom>>() {
+                Flow.Subscription subscription;
+                int count = 0;
+
+                public void onSubscribe(Flow.Subscription s) {
+                    subscription = s;
+                    s.request(1);
+                }
+
+                public void onNext(Stream<Datom> chunk) {
+                    count++;
+                    chunk.forEach(d -> titles.add(d.v()));
+                    subscription.request(1);
+                }
+
+                public void onError(Throwable e) {
+                    chunks.completeExceptionally(e);
+                }
+
+                public void onComplete() {
+                    chunks.complete(count);
+                }
+            });
+        assertThat(chunks.get(), is(3));
+        assertThat(titles, is(list("Commando", "Repo Man", "The Goonies")));
+    }
+
+    @Test
+    public void datomsPublisherInvalidRequest() throws ExecutionException, InterruptedException {
+        // Invalid request signalled after the chunk in flight, never concurrently
+        List<Object> signals = new ArrayList<>();
+        CompletableFuture<List<Object>> done = new CompletableFuture<>();
+        conn.db().datomsPublisher(":avet", list(read(":movie/title")), 0, 1)
+            .subscribe(new Flow.Subscriber<Stream<Datom>>() {
+                Flow.Subscription subscription;
+
+                public void onSubscribe(Flow.Subscription s) {
+                    subscription = s;
+                    s.request(1);
+                }
+
+                public void onNext(Stream<Datom> chunk) {
+                    signals.add("onNext");
+                    subscription.request(0);
+                    signals.add("requested");
+                }
+
+                public void onError(Throwable e) {
+                    signals.add(e.getClass());
+                    done.complete(signals);
+                }
+
+                public void onComplete() {
+                    signals.add("onComplete");
+                    done.complete(signals);
+                }
+            });
+        assertThat(done.get(), is(list("onNext", "requested", IllegalArgumentException.class)));
+    }
+
+
     @Test
     public void datomsEAVT() throws ExecutionException, InterruptedException {
 
@@ -922,6 +1051,90 @@ public class AsyncDbTest extends SetupAsync {
         //        ));
     }
 
+
+    @Test
+    public void pullManyInFlight() throws Exception {
+        // 10k requests in flight with a single pool thread that never waits
+        // for Datomic: take! callbacks only hand it the results to complete.
+        // Taking with <!! inside a pool task would make the thread wait.
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        AtomicLong waits = new AtomicLong();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Executor counting = task -> pool.execute(() -> {
+            long id = Thread.currentThread().getId();
+            long before = threads.getThreadInfo(id).getWaitedCount();
+            task.run();
+            waits.addAndGet(threads.getThreadInfo(id).getWaitedCount() - before);
+        });
+        try {
+            AsyncDb db = conn.db().withExecutor(counting);
+            List<CompletableFuture<Object>> titles = new ArrayList<>();
+            for (int i = 0; i < 10000; i++) {
+                titles.add(db.pull("[:movie/title]", e3()).thenApply(
+                    res -> ((Right<?, Map<?, ?>>) res).right_value().get(read(":movie/title"))
+                ));
+            }
+            CompletableFuture.allOf(titles.toArray(new CompletableFuture[0]))
+                .get(60, TimeUnit.SECONDS);
+            for (CompletableFuture<Object> title : titles) {
+                assertThat(title.get(), is("Repo Man"));
+            }
+            assertThat(waits.get(), is(0L));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void withExecutor() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor(r -> new Thread(r, "db-pool"));
+        try {
+            AsyncDb db = conn.db().withExecutor(pool);
+            String thread = db.pull("[:movie/title]", e3())
+                .thenApply(res -> Thread.currentThread().getName())
+                .get(10, TimeUnit.SECONDS);
+            assertThat(thread, is("db-pool"));
+
+            // Derived dbs keep the executor
+            assertThat(db.asOf(tAfter()).executor(), is(pool));
+            assertThat(db.history().executor(), is(pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void withDeadline() throws Exception {
+        // Ample budget
+        AsyncDb db = conn.db().withDeadline(Deadline.in(10000));
+        Map<?, ?> film = ((Right<?, Map<?, ?>>) db.pull("[:movie/title]", e3()).get()).right_value();
+        assertThat(film.get(read(":movie/title")), is("Repo Man"));
+
+        // Derived dbs keep the deadline
+        assertThat(db.asOf(tAfter()).deadline(), is(db.deadline()));
+
+        // Expired deadline fails without invoking Datomic
+        AsyncDb expired = conn.db().withDeadline(Deadline.in(0));
+        CognitectAnomaly anomaly = ((Left<CognitectAnomaly, ?>) expired.pull("[:movie/title]", e3()).get()).left_value();
+        assertThat(anomaly, instanceOf(Interrupted.class));
+        assertThat(anomaly.getMessage(), is(ErrorMsg.deadline()));
+    }
+
+    @Test
+    public void cancelClosesChannel() {
+        // Channel that never delivers, decoded like the datoms of `datoms`
+        Object channel = Clojure.var("clojure.core.async", "chan").invoke();
+        CompletableFuture<Either<CognitectAnomaly, Stream<Datom>>> datoms =
+            Channel.<Object, Stream<Datom>>takeMap(
+                () -> channel, ForkJoinPool.commonPool(), Option.empty(), Helper::streamOfDatoms
+            );
+        datoms.cancel(false);
+
+        // Cancelling the dependent future closed the channel
+        IFn put = Clojure.var("clojure.core.async", "put!");
+        assertThat(put.invoke(channel, "datom"), is(false));
+    }
+
     // since 1.0.61.65
     @Test
     public void indexPull() throws ExecutionException, InterruptedException {
@@ -1,24 +1,38 @@
 package datomicJava.client.api.sync;
 
+import clojure.lang.Keyword;
 import datomic.Util;
+import datomicClient.BulkImport;
+import datomicClient.ErrorMsg;
+import datomicClient.TxTemplate;
 import datomicJava.Setup;
 import datomicJava.client.api.Datom;
+import datomicJava.client.api.DatomCursor;
+import datomicJava.client.api.TxRangeCursor;
 import javafx.util.Pair;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
 import java.io.FileNotFoundException;
+import java.io.StringReader;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Stream;
 
 import static datomic.Util.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThrows;
 
 @FixMethodOrder(MethodSorters.JVM)
 public class ConnectionTest extends Setup {
@@ -78,6 +92,103 @@ public class ConnectionTest extends Setup {
         ));
     }
 
+    // Java data converted to clojure data (CljData) and read back
+
+    private void transactCljDataSchema() {
+        conn.transact(list(
+            map(
+                read(":db/ident"), read(":movie/budget"),
+                read(":db/valueType"), read(":db.type/bigint"),
+                read(":db/cardinality"), read(":db.cardinality/one")
+            ),
+            map(
+                read(":db/ident"), read(":movie/sequel"),
+                read(":db/valueType"), read(":db.type/ref"),
+                read(":db/cardinality"), read(":db.cardinality/one")
+            ),
+            map(
+                read(":db/ident"), read(":movie/tags"),
+                read(":db/valueType"), read(":db.type/string"),
+                read(":db/cardinality"), read(":db.cardinality/many")
+            )
+        ));
+    }
+
+    private Object only(String query) {
+        return Datomic.q(query, conn.db()).iterator().next().get(0);
+    }
+
+    @Test
+    public void transactDbIds() {
+        transactCljDataSchema();
+
+        // Temp DbId transacted as the String of its index, as entity id and ref value
+        TxReport txReport = conn.transact(list(
+            map(read(":db/id"), read("#db/id[:db.part/user -1]"), read(":movie/title"), "Film 4"),
+            map(read(":movie/title"), "Film 5", read(":movie/sequel"), read("#db/id[:db.part/user -1]"))
+        ));
+        Object film4 = txReport.tempIds().get("-1");
+        assertThat(films(conn.db()), is(fiveFilms));
+        assertThat(only("[:find ?e :where [?e :movie/title \"Film 4\"]]"), is(film4));
+        assertThat(only("[:find ?s :where [?e :movie/title \"Film 5\"] [?e :movie/sequel ?s]]"), is(film4));
+
+        // DbId of an existing entity transacted as its entity id
+        conn.transact(list(
+            map(read(":db/id"), read("#db/id[:db.part/user " + film4 + "]"), read(":movie/genre"), "drama")
+        ));
+        assertThat(only("[:find ?g :where [?e :movie/title \"Film 4\"] [?e :movie/genre ?g]]"), is("drama"));
+        assertThat(films(conn.db()), is(fiveFilms));
+    }
+
+    @Test
+    public void transactWidenedNumbers() {
+        transactCljDataSchema();
+        BigInteger budget = new BigInteger("123456789012345678901234567890");
+        conn.transact(list(
+            map(read(":movie/title"), "Film 4", read(":movie/release-year"), 2000),
+            map(read(":movie/title"), "Film 5", read(":movie/release-year"), (short) 2001),
+            map(read(":movie/title"), "Film 6", read(":movie/budget"), budget)
+        ));
+
+        // Int and Short widened to Long
+        assertThat(only("[:find ?y :where [?e :movie/title \"Film 4\"] [?e :movie/release-year ?y]]"), is(2000L));
+        assertThat(only("[:find ?y :where [?e :movie/title \"Film 5\"] [?e :movie/release-year ?y]]"), is(2001L));
+
+        // BigInteger as clojure BigInt
+        Object readBack = only("[:find ?b :where [?e :movie/title \"Film 6\"] [?e :movie/budget ?b]]");
+        assertThat(new BigInteger(readBack.toString()), is(budget));
+    }
+
+    @Test
+    public void transactNestedLists() {
+        transactCljDataSchema();
+
+        // RandomAccess list as vector, other lists as clojure list, also when nested
+        LinkedList<String> linked = new LinkedList<>(Arrays.asList("c", "d"));
+        conn.transact(list(
+            map(read(":movie/title"), "Film 4", read(":movie/tags"), new ArrayList<>(Arrays.asList("a", "b"))),
+            map(read(":movie/title"), "Film 5", read(":movie/sequel"), map(
+                read(":movie/title"), "Film 6",
+                read(":movie/tags"), linked
+            ))
+        ));
+        assertThat(films(conn.db()), is(sixFilms));
+        assertThat(new HashSet<>(tags("Film 4")), is(new HashSet<>(list("a", "b"))));
+        assertThat(new HashSet<>(tags("Film 6")), is(new HashSet<>(list("c", "d"))));
+        assertThat(only("[:find ?t :where [?e :movie/title \"Film 5\"] [?e :movie/sequel ?s] [?s :movie/title ?t]]"),
+            is("Film 6"));
+    }
+
+    private List<Object> tags(String title) {
+        List<?> rows = new ArrayList<>(Datomic.q(
+            "[:find ?tag :in $ ?title :where [?e :movie/title ?title] [?e :movie/tags ?tag]]",
+            conn.db(), title
+        ));
+        List<Object> tags = new ArrayList<>();
+        rows.forEach(row -> tags.add(((List<?>) row).get(0)));
+        return tags;
+    }
+
     @Test
     public void transactEdnFile() throws FileNotFoundException {
         assertThat(films(conn.db()), is(threeFilms));
@@ -92,6 +203,183 @@ public class ConnectionTest extends Setup {
         assertThat(films(conn.db()), is(fourFilms));
     }
 
+    @Test
+    public void transactTemplate() {
+        TxTemplate film = TxTemplate.of("[{:movie/title ? :movie/genre \"drama\" :movie/release-year ?}]");
+        assertThat(film.arity(), is(2));
+
+        conn.transact(film, "Film 4", 2004);
+        conn.transact(film, "Film 5", 2005);
+        conn.transact(film, "Film 6", 2006);
+        assertThat(films(conn.db()), is(sixFilms));
+
+        // Values must match the placeholders
+        assertThrows(IllegalArgumentException.class, () -> conn.transact(film, "Film 7"));
+    }
+
+    @Test
+    public void transactTemplateListForm() {
+        TxTemplate film = TxTemplate.of(
+            "[[:db/add \"film\" :movie/title ?] (:db/add \"film\" :movie/release-year ?)]"
+        );
+        assertThat(film.arity(), is(2));
+
+        conn.transact(film, "Film 4", 2004);
+        Object year = Datomic.q(
+            "[:find ?year :where [?e :movie/title \"Film 4\"] [?e :movie/release-year ?year]]",
+            conn.db()
+        ).iterator().next().get(0);
+        assertThat(year, is(2004L));
+
+        // Placeholders only stand for values
+        assertThrows(IllegalArgumentException.class, () -> TxTemplate.of("[{? \"Film 5\"}]"));
+    }
+
+    @Test
+    public void transactTemplateKeyword() {
+        TxTemplate film = TxTemplate.of("[{:db/ident ? :movie/title ?}]");
+
+        // Keyword values are bound as keywords, not as Strings
+        conn.transact(film, Keyword.intern("film", "four"), "Film 4");
+        assertThat(conn.db().pull("[:movie/title]", read(":film/four")).get(read(":movie/title")),
+            is("Film 4"));
+    }
+
+    @Test
+    public void bulkImport() {
+        List<BulkImport.Progress> progress = new ArrayList<>();
+        BulkImport.Progress done = conn.bulkImport(
+            new StringReader("[{:db/id \"film4\" :movie/title \"Film 4\"}\n" +
+                "{:db/id \"film4\" :movie/release-year 2000}]"),
+            1, 1000, progress::add
+        );
+
+        // One transaction per statement
+        assertThat(done.transactions(), is(2L));
+        assertThat(done.statements(), is(2L));
+        assertThat(progress.size(), is(2));
+        assertThat(films(conn.db()), is(fourFilms));
+
+        // Temp id of the second transaction resolved to the entity of the first
+        Object year = Datomic.q(
+            "[:find ?year :where [?e :movie/title \"Film 4\"] [?e :movie/release-year ?year]]",
+            conn.db()
+        ).iterator().next().get(0);
+        assertThat(year, is(2000L));
+    }
+
+    @Test
+    public void bulkImportTaggedLiterals() {
+        // Datomic's data readers are used like with transact(Reader)
+        conn.bulkImport(
+            new StringReader("[{:db/id #db/id[:db.part/user] :movie/title \"Film 4\"}]"),
+            1, 1000, null
+        );
+        assertThat(films(conn.db()), is(fourFilms));
+
+        // Tags without reader are rejected
+        IllegalArgumentException unknown = assertThrows(
+            IllegalArgumentException.class,
+            () -> conn.bulkImport(
+                new StringReader("[{:movie/title #film/title \"Film 5\"}]"), 1, 1000, null
+            )
+        );
+        assertThat(unknown.getMessage(), is(ErrorMsg.ednTag(read("film/title"))));
+    }
+
+    @Test
+    public void bulkImportOnlyResolvesAddAndRetract() {
+        // "film4" of the retractEntity call is not taken as the entity
+        // created by the first transaction of the import
+        try {
+            conn.bulkImport(
+                new StringReader("[{:db/id \"film4\" :movie/title \"Film 4\"}\n" +
+                    "[:db/retractEntity \"film4\"]]"),
+                1, 1000, null
+            );
+        } catch (RuntimeException unresolvedTempId) {
+            // Rejected by Datomic as a temp id that is not an entity
+        }
+        assertThat(films(conn.db()), is(fourFilms));
+    }
+
+    @Test
+    public void batcher() {
+        TxBatcher batcher = conn.batcher(200, 10);
+        CompletableFuture<TxReport> tx4 = batcher.transactAsync(list(
+            map(read(":db/id"), "film4", read(":movie/title"), "Film 4")
+        ));
+        CompletableFuture<TxReport> tx5 = batcher.transactAsync(film5);
+        CompletableFuture<TxReport> invalid = batcher.transactAsync(list(
+            map(read(":movie/title"), 42L)
+        ));
+        CompletableFuture<TxReport> tx6 = batcher.transactAsync(film6);
+        batcher.close();
+
+        // Valid transactions committed despite the invalid one in the batch
+        assertThat(films(conn.db()), is(sixFilms));
+        assertThrows(ExecutionException.class, invalid::get);
+
+        // Each caller only gets its own temp ids
+        assertThat(tx4.join().tempIds().containsKey("film4"), is(true));
+        assertThat(tx5.join().tempIds().size(), is(0));
+
+        // Failed merged transaction retried one by one in submission order
+        assertThat(tx5.join().t() > tx4.join().t(), is(true));
+        assertThat(tx6.join().t() > tx5.join().t(), is(true));
+
+        TxBatcher.Metrics metrics = batcher.metrics();
+        assertThat(metrics.submitted(), is(4L));
+        assertThat(metrics.committed(), is(3L));
+        assertThat(metrics.failed(), is(1L));
+        assertThat(metrics.retried(), is(1L));
+        // Merged transaction + 4 retries
+        assertThat(metrics.transacts(), is(5L));
+    }
+
+    @Test
+    public void batcherMerged() {
+        TxBatcher batcher = conn.batcher(200, 10);
+        CompletableFuture<TxReport> tx4 = batcher.transactAsync(film4);
+        CompletableFuture<TxReport> tx5 = batcher.transactAsync(film5);
+        CompletableFuture<TxReport> tx6 = batcher.transactAsync(film6);
+        batcher.close();
+
+        assertThat(films(conn.db()), is(sixFilms));
+
+        // All valid transactions committed in one transaction
+        assertThat(tx5.join().t(), is(tx4.join().t()));
+        assertThat(tx6.join().t(), is(tx4.join().t()));
+
+        TxBatcher.Metrics metrics = batcher.metrics();
+        assertThat(metrics.committed(), is(3L));
+        assertThat(metrics.transacts(), is(1L));
+        assertThat(metrics.meanBatchSize(), is(3.0));
+    }
+
+    @Test
+    public void batcherDbIdTempIds() {
+        TxBatcher batcher = conn.batcher(200, 10);
+        CompletableFuture<TxReport> tx4 = batcher.transactAsync(list(
+            map(read(":db/id"), read("#db/id[:db.part/user -1]"), read(":movie/title"), "Film 4")
+        ));
+        // Refers to "-1" as text, so it can't join the batch of tx4
+        CompletableFuture<TxReport> tx5 = batcher.transactAsync(list(
+            map(read(":db/id"), "-1", read(":movie/title"), "Film 5")
+        ));
+        CompletableFuture<TxReport> tx6 = batcher.transactAsync(film6);
+        batcher.close();
+
+        assertThat(films(conn.db()), is(sixFilms));
+        assertThat(tx5.join().t() > tx4.join().t(), is(true));
+
+        // Each caller gets the temp id of its own DbId or String
+        assertThat(tx4.join().tempIds().containsKey("-1"), is(true));
+        assertThat(tx5.join().tempIds().containsKey("-1"), is(true));
+        assertThat(tx6.join().tempIds().size(), is(0));
+        assertThat(tx5.join().tempIds().get("-1"), not(tx4.join().tempIds().get("-1")));
+    }
+
 
     public static void checkRange(
         Connection conn,
@@ -139,6 +427,25 @@ public class ConnectionTest extends Setup {
         assertThat(n[0], is(expectedLastT));
     }
 
+    @Test
+    public void txRangeCursor() {
+        // Flyweight cursors over txs and their datoms
+        TxRangeCursor txs = conn.txRangeCursor();
+        long lastT = 0L;
+        List<Object> lastValues = new ArrayList<>();
+        while (txs.advance()) {
+            lastT = txs.t();
+            lastValues.clear();
+            DatomCursor datoms = txs.datoms();
+            while (datoms.advance()) {
+                lastValues.add(datoms.v());
+            }
+        }
+        assertThat(lastT, is(tAfter()));
+        assertThat(lastValues.size(), is(10));
+        assertThat(lastValues.get(1), is("The Goonies"));
+    }
+
     @Test
     public void txRange() throws InterruptedException {
 
@@ -1,18 +1,30 @@
 package datomicJava.client.api.sync;
 
+import clojure.lang.ILookup;
+import clojure.lang.PersistentArrayMap;
 import datomicClient.ErrorMsg;
+import datomicClient.Prefetcher;
 import datomicClient.anomaly.Interrupted;
 import datomicJava.Setup;
 import datomicJava.client.api.Datom;
+import datomicJava.client.api.DatomBatch;
 import datomicJava.client.api.DbStats;
+import datomicJava.client.api.Helper;
+import datomicJava.client.api.PrimitiveDatom;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
+import scala.runtime.BoxedUnit;
 
 import java.io.FileNotFoundException;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static datomic.Util.*;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThrows;
@@ -690,6 +702,198 @@ public class DbTest extends Setup {
     }
 
 
+    @Test
+    public void datomsPrimitive() {
+        // Same datoms with unboxed ids and typed value accessors
+        Iterator<PrimitiveDatom> it = conn.db().datomsPrimitive(
+            ":avet",
+            list(read(":movie/title"), "Commando")
+        ).iterator();
+        PrimitiveDatom datom = it.next();
+        assertThat(datom.e(), is(e2()));
+        assertThat(datom.a(), is(a1()));
+        assertThat(datom.stringValue(), is("Commando"));
+        assertThat(datom.tx(), is(txAfter()));
+        assertThat(datom.added(), is(true));
+        assertThat(it.hasNext(), is(false));
+
+        Iterator<PrimitiveDatom> years = conn.db().indexRangePrimitive(
+            ":movie/release-year", 1985, 1986
+        ).iterator();
+        assertThat(years.next().longValue(), is(1985L));
+        assertThat(years.next().longValue(), is(1985L));
+        assertThat(years.hasNext(), is(false));
+
+        // Idents in place of attribute ids are rejected with a clear message
+        ILookup identDatom = PersistentArrayMap.createAsIfByAssoc(new Object[]{
+            read(":e"), e2(), read(":a"), read(":movie/title"), read(":v"), "Commando",
+            read(":tx"), txAfter(), read(":added"), true
+        });
+        IllegalArgumentException primitive = assertThrows(
+            IllegalArgumentException.class, () -> Helper.getPrimitiveDatom(identDatom)
+        );
+        assertThat(primitive.getMessage(), is(ErrorMsg.attrNotId(read(":movie/title"))));
+        assertThrows(
+            IllegalArgumentException.class, () -> Helper.datomBatch(list(identDatom))
+        );
+    }
+
+
+    @Test
+    public void datomsBatch() {
+        // Page of datoms as columns
+        DatomBatch batch = conn.db().datomsBatch(
+            ":avet",
+            list(read(":movie/title"))
+        );
+        assertThat(batch.size(), is(3));
+        assertThat(batch.e()[0], is(e2()));
+        assertThat(batch.a()[0], is(a1()));
+        assertThat(batch.tx()[0], is(txAfter()));
+        assertThat(batch.isAdded(0), is(true));
+        assertThat(batch.hasLongValues(), is(false));
+        assertThat(batch.value(0), is("Commando"));
+        assertThat(batch.value(2), is("The Goonies"));
+
+        // Long values in a primitive column
+        DatomBatch years = conn.db().indexRangeBatch(
+            ":movie/release-year", 1985, 1986
+        );
+        assertThat(years.size(), is(2));
+        assertThat(years.hasLongValues(), is(true));
+        assertThat(years.longValues()[0], is(1985L));
+    }
+
+
+    @Test
+    public void datomsPaged() {
+        // Pages of 2 datoms fetched while consuming
+        List<Object> titles = new ArrayList<>();
+        conn.db().datomsPaged(":avet", list(read(":movie/title")), 0, 2)
+            .forEach(d -> titles.add(d.v()));
+        assertThat(titles, is(list("Commando", "Repo Man", "The Goonies")));
+
+        // Next page resumes from the last value, skipping datoms already returned
+        List<Object> years = new ArrayList<>();
+        conn.db().indexRangePaged(":movie/release-year", null, null, 0, 1)
+            .forEach(d -> years.add(d.v()));
+        assertThat(years, is(list(1984L, 1985L, 1985L)));
+
+        // Pages of 2 resuming within pages without a run spanning them
+        assertThat(conn.db().indexRangePaged(":movie/release-year", null, null, 0, 2)
+            .map(Datom::v).collect(toList()), is(list(1984L, 1985L, 1985L)));
+
+        // Run of one value over several pages read from one cursor
+        List<Object> films2000 = new ArrayList<>();
+        for (int i = 4; i <= 8; i++) {
+            films2000.add(map(read(":movie/title"), "Film " + i, read(":movie/release-year"), 2000));
+        }
+        conn.transact(films2000);
+        List<Object> from1985 = conn.db()
+            .indexRangePaged(":movie/release-year", 1985, null, 0, 2)
+            .map(Datom::v)
+            .collect(toList());
+        assertThat(from1985, is(list(1985L, 1985L, 2000L, 2000L, 2000L, 2000L, 2000L)));
+    }
+
+
+    @Test
+    public void datomsPrefetched() {
+        // Pages of 1 datom with up to 2 pages fetched ahead
+        List<Object> titles = new ArrayList<>();
+        conn.db().datomsPrefetched(
+            ":avet", list(read(":movie/title")), 0, 1, 2, 10, Prefetcher.defaultExecutor()
+        ).forEach(d -> titles.add(d.v()));
+        assertThat(titles, is(list("Commando", "Repo Man", "The Goonies")));
+
+        List<Object> years = new ArrayList<>();
+        conn.db().indexRangePrefetched(
+            ":movie/release-year", null, null, 0, 1, 1, 1, Prefetcher.defaultExecutor()
+        ).forEach(d -> years.add(d.v()));
+        assertThat(years, is(list(1984L, 1985L, 1985L)));
+
+        assertThat(conn.db().indexPullPrefetched(
+            ":avet",
+            "[:movie/title :movie/release-year]",
+            "[:movie/release-year 1985]"
+        ).count(), is(2L));
+
+        // Depth and memory cap must be positive
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> conn.db().datomsPrefetched(
+                ":avet", list(read(":movie/title")), 0, 1, 0, 10, Prefetcher.defaultExecutor()
+            )
+        );
+    }
+
+
+    @Test
+    public void prefetcherClose() {
+        // Closing an endless prefetcher releases its source and ends iteration
+        AtomicBoolean released = new AtomicBoolean();
+        Prefetcher<Object> endless = new Prefetcher<>(
+            () -> list(1L, 2L), Prefetcher.defaultExecutor(), 2, 10,
+            () -> {
+                released.set(true);
+                return BoxedUnit.UNIT;
+            }
+        );
+        assertThat(endless.next(), is(1L));
+        endless.close();
+        assertThat(released.get(), is(true));
+        assertThat(endless.hasNext(), is(false));
+
+        // Closing a stream closes its prefetcher
+        try (Stream<Datom> titles = conn.db().datomsPrefetched(
+            ":avet", list(read(":movie/title")), 0, 1, 2, 10, Prefetcher.defaultExecutor()
+        )) {
+            assertThat(titles.iterator().next().v(), is("Commando"));
+        }
+
+        // A rejected fetch fails the iteration instead of hanging it
+        Prefetcher<Object> rejected = new Prefetcher<>(
+            () -> list(1L),
+            task -> {
+                throw new RejectedExecutionException("Executor shut down");
+            },
+            1, 10, () -> BoxedUnit.UNIT
+        );
+        assertThrows(RejectedExecutionException.class, rejected::hasNext);
+    }
+
+
+    @Test
+    public void datomsPartitioned() {
+        // One partition per attribute of :aevt, merged back in index order
+        List<List<?>> attrs = list(
+            list(read(":movie/title")),
+            list(read(":movie/release-year"))
+        );
+        List<Object> values = StreamSupport
+            .stream(conn.db().datomsPartitioned(":aevt", attrs), true)
+            .map(Datom::v)
+            .collect(toList());
+        assertThat(values, is(list(
+            "The Goonies", "Commando", "Repo Man", 1984L, 1985L, 1985L
+        )));
+
+        // Value ranges sampled every datom, so [.. 1985) and [1985 ..)
+        List<Object> years = StreamSupport
+            .stream(conn.db().indexRangePartitioned(":movie/release-year", null, null, 1), true)
+            .map(Datom::v)
+            .collect(toList());
+        assertThat(years, is(list(1984L, 1985L, 1985L)));
+
+        // Sized from the samples: 1 datom before 1985 and 2 from 1985
+        Spliterator<Datom> sampled = conn.db()
+            .indexRangePartitioned(":movie/release-year", null, null, 1);
+        assertThat(sampled.estimateSize(), is(3L));
+        assertThat(sampled.trySplit().estimateSize(), is(1L));
+        assertThat(sampled.estimateSize(), is(2L));
+    }
+
+
     private List<String> indexRange(
         String attrId,
         Object start,
@@ -858,6 +1062,22 @@ public class DbTest extends Setup {
         //        assertThat(timedOut.getMessage(), is("Datomic Client Timeout"));
     }
 
+    @Test
+    public void pullAll() {
+        List<Map<?, ?>> entities = conn.db().pullAll("[:movie/title]", list(e1(), e2(), e3()));
+        assertThat(entities.size(), is(3));
+        assertThat(entities.get(2).get(read(":movie/title")), is("Repo Man"));
+
+        // First failure is thrown (lookup ref on non-unique attribute)
+        assertThrows(
+            RuntimeException.class,
+            () -> conn.db().pullAll(
+                "[:movie/title]",
+                list(e1(), list(read(":movie/title"), "Commando"), e3())
+            )
+        );
+    }
+
     // since 1.0.61.65
     @Test
     public void indexPull() {
@@ -1,11 +1,17 @@
 package datomicJava.client.api.sync;
 
+import datomicClient.TempIds;
+import datomicJava.client.api.DatomBatch;
 import datomicJava.Setup;
 import org.junit.Test;
 
+import java.util.NoSuchElementException;
+
+import static datomic.Util.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.Assert.assertThrows;
 
 
 public class TxReportTest extends Setup {
@@ -30,4 +36,39 @@ public class TxReportTest extends Setup {
             assertThat(filmDataTx.tempIds().size(), is(3));
         }
     }
+
+    @Test
+    public void tempIdsPrimitive() {
+        TxReport txReport = conn.transact(list(
+            map(read(":db/id"), "film4", read(":movie/title"), "Film 4"),
+            map(read(":db/id"), "film5", read(":movie/title"), "Film 5")
+        ));
+        TempIds tempIds = txReport.tempIdsPrimitive();
+        assertThat(tempIds.size(), is(2));
+        assertThat(tempIds.get("film4"), is(((Number) txReport.tempIds().get("film4")).longValue()));
+        assertThat(tempIds.contains("film6"), is(false));
+
+        long[] eids = tempIds.resolve(new String[]{"film5", "film4", "film6"}, -1L);
+        assertThat(eids[0], is(tempIds.get("film5")));
+        assertThat(eids[1], is(tempIds.get("film4")));
+        assertThat(eids[2], is(-1L));
+        assertThrows(NoSuchElementException.class, () -> tempIds.get("film6"));
+    }
+
+    @Test
+    public void basisFields() {
+        TxReport txReport = conn.transact(list(
+            map(read(":db/id"), "film4", read(":movie/title"), "Film 4")
+        ));
+        assertThat(txReport.basisT(), is(txReport.dbBefore().t()));
+        assertThat(txReport.t(), is(txReport.dbAfter().t()));
+        assertThat(txReport.tx(), is(txReport.txDatom().e()));
+        assertThat(txReport.txInst(), is(txReport.txDatom().v()));
+
+        DatomBatch batch = txReport.txDataBatch();
+        assertThat((long) batch.size(), is(txReport.txData().count()));
+        assertThat(batch.e()[0], is(txReport.tx()));
+        assertThat(batch.tx()[1], is(txReport.tx()));
+        assertThat(txReport.txDataBatch(), is(batch));
+    }
 }
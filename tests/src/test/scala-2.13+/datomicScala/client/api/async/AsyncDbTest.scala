@@ -267,6 +267,13 @@ class AsyncDbTest extends SpecAsync with AnomalyWrapper {
   }
 
 
+  "since async" in new AsyncSetup {
+    films(waitFor(conn.db.sinceAsync(txInstBefore)).toOption.get) === threeFilms
+    films(waitFor(conn.db.sinceAsync(txAfter)).toOption.get) === Nil
+    waitFor(conn.db.sinceAsync(txAfter)).toOption.get.sinceTxInst === txInstAfter
+  }
+
+
   "with java stmts" in new AsyncSetup {
     // Original state
     films(conn.db) === threeFilms
@@ -719,6 +726,25 @@ class AsyncDbTest extends SpecAsync with AnomalyWrapper {
   }
 
 
+  // fs2 collides with specs2, so we need to call this outside the test body
+  def indexRangeSource(db: AsyncDb, chunk: Int, prefetch: Int): List[String] = {
+    import cats.effect.IO
+    import cats.effect.unsafe.implicits.global
+    db.indexRangeSource[IO](":movie/title", chunk = chunk, prefetch = prefetch)
+      .map(_.v.toString)
+      .compile
+      .toList
+      .unsafeRunSync()
+  }
+
+  "indexRange source" in new AsyncSetup {
+    // Chunks of 1 or 2 datoms taken ahead of the consumer
+    indexRangeSource(conn.db, 1, 2) === List("Commando", "Repo Man", "The Goonies")
+    indexRangeSource(conn.db, 2, 1) === List("Commando", "Repo Man", "The Goonies")
+    indexRangeSource(conn.db, 2, 0) === List("Commando", "Repo Man", "The Goonies")
+  }
+
+
   "pull" in new AsyncSetup {
     waitFor(conn.db.pull("[*]", e3)).toOption.get.toString ===
       s"""{:db/id $e3, :movie/title "Repo Man", :movie/genre "punk dystopia", :movie/release-year 1984}"""
@@ -1,14 +1,14 @@
 package datomicScala.client.api.sync
 
 import java.io.FileReader
-import java.util.stream.{Stream => jStream}
-import java.util.{Map => jMap}
+import java.util.stream.{StreamSupport, Stream => jStream}
+import java.util.{Arrays, List => jList, Map => jMap}
 import clojure.lang.PersistentVector
 import datomic.Util
 import datomic.Util._
 import datomicClient.ErrorMsg
 import datomicScala.Spec
-import datomicScala.client.api.{Datom, DbStats}
+import datomicScala.client.api.{Datom, DbStats, PrimitiveDatom}
 import scala.jdk.CollectionConverters._
 import scala.jdk.StreamConverters._
 
@@ -627,6 +627,97 @@ class DbTest extends Spec {
 
       ok
     }
+
+
+    "datoms with unboxed ids" in new Setup {
+      val List(datom) = conn.db.datomsPrimitive(
+        ":avet",
+        list(read(":movie/title"), "Commando")
+      ).toScala(List)
+
+      datom === PrimitiveDatom(e2, a1, "Commando", txAfter, true)
+      datom.stringValue === "Commando"
+
+      conn.db.indexRangePrimitive(
+        ":movie/release-year", Some(1985), Some(1986)
+      ).toScala(List).map(_.longValue) === List(1985L, 1985L)
+    }
+
+
+    "datoms as columns" in new Setup {
+      val batch = conn.db.datomsBatch(":avet", list(read(":movie/title")))
+      batch.size === 3
+      batch.e.toList === List(e2, e3, e1)
+      batch.a.toList === List(a1, a1, a1)
+      batch.hasLongValues === false
+      (0 until batch.size).map(batch.value) === List("Commando", "Repo Man", "The Goonies")
+      batch.added.cardinality === 3
+
+      val years = conn.db.indexRangeBatch(":movie/release-year", Some(1985), Some(1986))
+      years.hasLongValues === true
+      years.longValues.toList === List(1985L, 1985L)
+    }
+
+
+    "datoms paged" in new Setup {
+      // Pages of 2 datoms fetched while consuming
+      conn.db.datomsPaged(
+        ":avet", list(read(":movie/title")), pageSize = 2
+      ).toScala(List).map(_.v) === List("Commando", "Repo Man", "The Goonies")
+
+      // Next page resumes from the last value, skipping datoms already returned
+      conn.db.indexRangePaged(
+        ":movie/release-year", pageSize = 1
+      ).toScala(List).map(_.v) === List(1984L, 1985L, 1985L)
+    }
+
+    "datoms prefetched" in new Setup {
+      // Pages of 1 datom with up to 2 pages fetched ahead
+      conn.db.datomsPrefetched(
+        ":avet", list(read(":movie/title")), pageSize = 1, depth = 2
+      ).toScala(List).map(_.v) === List("Commando", "Repo Man", "The Goonies")
+
+      conn.db.indexRangePrefetched(
+        ":movie/release-year", pageSize = 1, maxBuffered = 1
+      ).toScala(List).map(_.v) === List(1984L, 1985L, 1985L)
+
+      conn.db.indexPullPrefetched(
+        ":avet",
+        "[:movie/title :movie/release-year]",
+        "[:movie/release-year 1985]"
+      ).count === 2L
+
+      // Depth and memory cap must be positive
+      conn.db.datomsPrefetched(
+        ":avet", list(read(":movie/title")), depth = 0
+      ) must throwA(
+        new IllegalArgumentException(ErrorMsg.zeroNeg)
+      )
+    }
+
+    "datoms partitioned" in new Setup {
+      // One partition per attribute of :aevt, merged back in index order
+      val attrs = Arrays.asList[jList[_]](
+        list(read(":movie/title")),
+        list(read(":movie/release-year"))
+      )
+      StreamSupport.stream(
+        conn.db.datomsPartitioned(":aevt", attrs), true
+      ).toScala(List).map(_.v) === List(
+        "The Goonies", "Commando", "Repo Man", 1984L, 1985L, 1985L
+      )
+
+      // Value ranges sampled every datom, so [.. 1985) and [1985 ..)
+      StreamSupport.stream(
+        conn.db.indexRangePartitioned(":movie/release-year", stride = 1), true
+      ).toScala(List).map(_.v) === List(1984L, 1985L, 1985L)
+
+      // Sized from the samples: 1 datom before 1985 and 2 from 1985
+      val sampled = conn.db.indexRangePartitioned(":movie/release-year", stride = 1)
+      sampled.estimateSize === 3L
+      sampled.trySplit().estimateSize === 1L
+      sampled.estimateSize === 2L
+    }
   }
 
 
@@ -731,6 +822,15 @@ class DbTest extends Spec {
   }
 
 
+  "pullAll" in new Setup {
+    conn.db.pullAll("[:movie/title]", Seq(e1, e2, e3)).map(_.toString) === List(
+      """{:movie/title "The Goonies"}""",
+      """{:movie/title "Commando"}""",
+      """{:movie/title "Repo Man"}"""
+    )
+  }
+
+
   // since 1.0.61.65
   "indexPull" in new Setup {
 
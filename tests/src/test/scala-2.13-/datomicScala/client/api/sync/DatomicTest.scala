@@ -208,6 +208,28 @@ class DatomicTest extends Spec with AnomalyWrapper {
 
   // qseq since 1.0.6165
 
+  "qseq iterator" in new Setup {
+    val it = Datomic.qseqIterator(
+      """[:find ?movie-title
+        |:where [_ :movie/title ?movie-title]]""".stripMargin,
+      conn.db
+    )
+    it.next() === list("Commando")
+    it.toList === List(list("The Goonies"), list("Repo Man"))
+    it.hasNext === false
+
+    // Closed before the end
+    val closed = Datomic.qseqIterator(
+      """[:find ?movie-title
+        |:where [_ :movie/title ?movie-title]]""".stripMargin,
+      conn.db
+    )
+    closed.next() === list("Commando")
+    closed.close()
+    closed.hasNext === false
+  }
+
+
   "qseq" in new Setup {
     // query & args / String
     Datomic.qseq(
@@ -68,6 +68,23 @@ class ConnectionTest extends Spec {
   }
 
 
+  "txRange cursor" in new Setup {
+    // Flyweight cursors over txs and their datoms
+    val txs        = conn.txRangeCursor()
+    var lastT      = 0L
+    var lastValues = List.empty[Any]
+    while (txs.advance()) {
+      lastT = txs.t
+      lastValues = Nil
+      while (txs.datoms.advance())
+        lastValues = lastValues :+ txs.datoms.v
+    }
+    lastT === tAfter
+    lastValues.size === 10
+    lastValues(1) === "The Goonies"
+  }
+
+
   "txRange" in new Setup {
 
     // Getting all transactions (!) -----------------------------------